@@ -9,6 +9,7 @@ module BFSPuzzles {
     requires transitive javafx.controls;
     requires java.logging;
     requires java.desktop;
+    requires jdk.management;
     exports puzzles.tipover.gui;
     exports puzzles.lunarlanding.gui;
 }
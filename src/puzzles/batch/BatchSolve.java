@@ -0,0 +1,364 @@
+package puzzles.batch;
+
+import puzzles.lunarlanding.model.LunarLandingConfig;
+import puzzles.tipover.model.TipOverConfig;
+import solver.Configuration;
+import solver.SolveResult;
+import solver.Solver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Solves many puzzle files in one run, on a pool of threads, and writes each solution
+ * to the output directory in the same form as the files already in output/. Arguments
+ * are files, directories, searched all the way down, and globs such as data/*&#47;lula-?.txt.
+ * The kind of puzzle is told from the directory a file is in, or else from its name. Files
+ * that don't start with a line of numbers, such as the command scripts next to the puzzles
+ * in data/, are skipped.
+ * <br><br>
+ * TipOver configs share their board between all configs of a puzzle, so TipOver files
+ * are solved one after another on one thread while everything else runs at once.
+ * At the end the run prints how many puzzles and configs it got through per second,
+ * and the median and 99th percentile time to solve one puzzle.
+ *
+ * @author Darian Cheung
+ */
+public class BatchSolve {
+
+    // first line of a puzzle file, the size of the board and where things are on it
+    private static final Pattern HEADER = Pattern.compile("\\s*\\d+(\\s+\\d+)+\\s*");
+
+    /**
+     * The kinds of puzzle files the batch knows how to read
+     */
+    enum Kind {
+        TIPOVER("tipover", false, "tipover"),
+        LUNAR_LANDING("lunarlanding", true, "lula", "lunarlanding");
+
+        /** directory the kind's files are in, under data/ and output/ */
+        final String directory;
+        /** whether puzzles of this kind can be solved at the same time */
+        final boolean concurrent;
+        private final String[] prefixes;
+
+        Kind(String directory, boolean concurrent, String... prefixes) {
+            this.directory = directory;
+            this.concurrent = concurrent;
+            this.prefixes = prefixes;
+        }
+
+        /**
+         * Reads the starting config of a puzzle file
+         * @param file puzzle file
+         * @return Configuration
+         * @throws IOException if the file can't be read
+         */
+        Configuration read(Path file) throws IOException {
+            if (this == TIPOVER) {
+                return new TipOverConfig(file.toString());
+            }
+            LunarLandingConfig config = new LunarLandingConfig(file.toString());
+            if (config.getExceptionCaught()) {
+                throw new IOException("Could not read " + file);
+            }
+            return config;
+        }
+
+        /**
+         * Finds the kind of a puzzle file from its directory, or else its name
+         * @param file puzzle file
+         * @return Kind, null if it isn't a puzzle file the batch knows
+         */
+        static Kind of(Path file) {
+            if (!hasHeader(file)) {
+                return null;
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            String name = file.getFileName().toString();
+            for (Kind kind : values()) {
+                if (parent != null && parent.getFileName() != null
+                        && parent.getFileName().toString().equals(kind.directory)) {
+                    return kind;
+                }
+            }
+            for (Kind kind : values()) {
+                for (String prefix : kind.prefixes) {
+                    if (name.startsWith(prefix)) {
+                        return kind;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Checks that a file starts with the line of numbers every puzzle file starts with
+         * @param file file to check
+         * @return whether it does, false if it can't be read
+         */
+        private static boolean hasHeader(Path file) {
+            try (BufferedReader in = Files.newBufferedReader(file)) {
+                String line = in.readLine();
+                return line != null && HEADER.matcher(line).matches();
+            }
+            catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * How solving one file went
+     * @param file puzzle file
+     * @param nanos time spent solving
+     * @param result result of the search, null if the file couldn't be solved
+     * @param error why the file couldn't be solved, null if it was
+     */
+    private record Outcome(Path file, long nanos, SolveResult result, String error) {
+    }
+
+    /**
+     * Runs the batch
+     * @param args [-threads n] [-out directory] then files, directories and globs
+     * @throws Exception if the pool is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = Path.of("output");
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-out") && i + 1 < args.length) {
+                out = Path.of(args[++i]);
+            }
+            else {
+                inputs.add(args[i]);
+            }
+        }
+        if (inputs.isEmpty() || threads < 1) {
+            System.out.println("Usage: java BatchSolve [-threads n] [-out directory] file|directory|glob ...");
+            return;
+        }
+
+        // puzzle files in the order given, each once
+        Set<Path> files = new LinkedHashSet<>();
+        for (String input : inputs) {
+            files.addAll(expand(input));
+        }
+        Map<Kind, List<Path>> byKind = new EnumMap<>(Kind.class);
+        for (Path file : files) {
+            Kind kind = Kind.of(file);
+            if (kind == null) {
+                System.out.println("Skipped " + file + ": not a puzzle file of a known kind");
+            }
+            else {
+                byKind.computeIfAbsent(kind, k -> new ArrayList<>()).add(file);
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<Outcome>>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        Path outDirectory = out;
+        for (Map.Entry<Kind, List<Path>> entry : byKind.entrySet()) {
+            Kind kind = entry.getKey();
+            if (kind.concurrent) {
+                for (Path file : entry.getValue()) {
+                    futures.add(pool.submit(() -> List.of(solve(kind, file, outDirectory))));
+                }
+            }
+            else {
+                futures.add(pool.submit(() -> {
+                    List<Outcome> outcomes = new ArrayList<>();
+                    for (Path file : entry.getValue()) {
+                        outcomes.add(solve(kind, file, outDirectory));
+                    }
+                    return outcomes;
+                }));
+            }
+        }
+        List<Outcome> outcomes = new ArrayList<>();
+        for (Future<List<Outcome>> future : futures) {
+            outcomes.addAll(future.get());
+        }
+        long wall = System.nanoTime() - start;
+        pool.shutdown();
+
+        report(outcomes, wall, threads);
+    }
+
+    /**
+     * Solves one file and writes its solution under the output directory
+     * @param kind kind of puzzle
+     * @param file puzzle file
+     * @param out output directory
+     * @return Outcome
+     */
+    private static Outcome solve(Kind kind, Path file, Path out) {
+        long start = System.nanoTime();
+        try {
+            Configuration config = kind.read(file);
+            SolveResult result = Solver.solve(config);
+            long nanos = System.nanoTime() - start;
+            Path target = out.resolve(kind.directory).resolve(file.getFileName());
+            Files.createDirectories(target.getParent());
+            Files.writeString(target, format(result));
+            return new Outcome(file, nanos, result, null);
+        }
+        catch (IOException | RuntimeException e) {
+            return new Outcome(file, System.nanoTime() - start, null, e.toString());
+        }
+    }
+
+    /**
+     * Writes a result the way the files in output/ have it
+     * @param result result of a search
+     * @return text of the output file
+     */
+    static String format(SolveResult result) {
+        StringBuilder text = new StringBuilder();
+        text.append("Total configs: ").append(result.getMetrics().getGenerated()).append('\n');
+        text.append("Unique configs: ").append(result.getMetrics().getUnique()).append('\n');
+        List<Configuration> path = result.getPath();
+        if (path.isEmpty()) {
+            text.append("No solution\n");
+        }
+        for (int i = 0; i < path.size(); i++) {
+            text.append("Step ").append(i).append(": \n");
+            board(text, path.get(i));
+            text.append('\n');
+        }
+        return text.append('\n').toString();
+    }
+
+    /**
+     * Writes a config's board with the column numbers over it, each cell three characters wide.
+     * The cells come from the config's getBoard, a config without a board is written as its toString.
+     * @param text where the board is written
+     * @param config config to write
+     */
+    private static void board(StringBuilder text, Configuration config) {
+        String[][] rows = config.hasBoard() ? config.getBoard() : new String[0][];
+        if (rows.length == 0) {
+            text.append(config).append('\n');
+            return;
+        }
+        int columns = rows[0].length;
+        text.append("    ");
+        for (int c = 0; c < columns; c++) {
+            text.append(String.format("%3d", c));
+        }
+        text.append("\n    ").append("_".repeat(3 * columns)).append('\n');
+        for (int r = 0; r < rows.length; r++) {
+            text.append(String.format("%2d |", r));
+            for (String cell : rows[r]) {
+                text.append(String.format("%3s", cell));
+            }
+            text.append('\n');
+        }
+    }
+
+    /**
+     * Prints each failed file, then the throughput and latency of the batch
+     * @param outcomes how each file went
+     * @param wall nanoseconds the whole batch took
+     * @param threads size of the pool
+     */
+    private static void report(List<Outcome> outcomes, long wall, int threads) {
+        long[] latencies = new long[outcomes.size()];
+        long configs = 0;
+        int solved = 0, failed = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            latencies[i] = outcome.nanos;
+            if (outcome.error != null) {
+                failed++;
+                System.out.println("Failed " + outcome.file + ": " + outcome.error);
+            }
+            else {
+                configs += outcome.result.getMetrics().getGenerated();
+                if (outcome.result.isSolved()) {
+                    solved++;
+                }
+            }
+        }
+        Arrays.sort(latencies);
+        double seconds = wall / 1e9;
+        System.out.println("Puzzles: " + outcomes.size() + " (" + solved + " solved, "
+                + (outcomes.size() - solved - failed) + " unsolvable, " + failed + " failed) on "
+                + threads + " threads");
+        System.out.printf("Wall Time: %.3f s%n", seconds);
+        System.out.printf("Puzzles/sec: %.1f%n", seconds == 0 ? 0 : outcomes.size() / seconds);
+        System.out.printf("Configs/sec: %.0f%n", seconds == 0 ? 0 : configs / seconds);
+        System.out.printf("Latency p50: %.3f ms%n", percentile(latencies, 50) / 1e6);
+        System.out.printf("Latency p99: %.3f ms%n", percentile(latencies, 99) / 1e6);
+    }
+
+    /**
+     * Returns the nearest rank percentile of sorted values
+     * @param sorted values in order
+     * @param percent percentile from 0 to 100
+     * @return value, 0 if there are none
+     */
+    static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Turns an argument into the files it names
+     * @param input a file, a directory or a glob
+     * @return files, sorted within a directory or glob
+     * @throws IOException if a directory can't be listed
+     */
+    private static List<Path> expand(String input) throws IOException {
+        if (input.chars().noneMatch(c -> "*?[{".indexOf(c) >= 0)) {
+            Path path = Path.of(input);
+            if (Files.isDirectory(path)) {
+                return walk(path, file -> true);
+            }
+            return List.of(path);
+        }
+        // search from the last directory before the first glob character
+        int glob = 0;
+        while ("*?[{".indexOf(input.charAt(glob)) < 0) {
+            glob++;
+        }
+        int slash = input.lastIndexOf('/', glob);
+        Path base = slash < 0 ? Path.of("") : Path.of(input.substring(0, slash + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+        return walk(base, matcher);
+    }
+
+    /**
+     * Lists the regular files under a directory that match, sorted
+     * @param directory directory to search
+     * @param matcher files to keep
+     * @return files
+     * @throws IOException if the directory can't be listed
+     */
+    private static List<Path> walk(Path directory, PathMatcher matcher) throws IOException {
+        Path from = directory.toString().isEmpty() ? Path.of(".") : directory;
+        try (Stream<Path> files = Files.walk(from)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> directory.toString().isEmpty() ? from.relativize(file) : file)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package puzzles.batch;
+
+import puzzles.lunarlanding.model.LunarLandingConfig;
+import solver.Configuration;
+import util.Coordinates;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Checks the moves of Lunar Landing configs against a slow but plain rule on random boards.
+ * A figure moving in a direction stops next to the nearest figure that way along its row or
+ * column, and can't move if there is none. The configs find that figure with bit scans on
+ * boards up to 8 by 8 and with sorted indexes of each row and column on bigger boards, and
+ * each move patches the indexes, adding a line a figure moves onto and dropping a line it
+ * leaves empty. Both are checked: the rule looks at every figure on the board instead.
+ * <br><br>
+ * Each board is searched breadth first from its random start. Every config reached has its
+ * neighbors compared with the rule, and so does every move a player can make from it: each
+ * figure in each direction through canMove, MoveNorth and the rest, and the copy constructor
+ * the model moves figures with. The first few configs have their predecessors checked to
+ * lead back to them. The neighbors of a config reached by a move use the indexes that move patched. The run
+ * prints how many moves emptied or added a line on the big boards, so a run that never
+ * got there shows, and exits with status 1 if any config was wrong.
+ *
+ * @author Darian Cheung
+ */
+public class LunarLandingMoveCheck {
+
+    // the four directions as row and column steps, and as the copy constructor and canMove name them
+    private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final String[] DIRECTIONS = {"NORTH", "SOUTH", "WEST", "EAST"};
+
+    // most wrong configs printed
+    private static final int SHOWN = 10;
+    // configs of each board whose predecessors are checked, each one makes up to a board's width of them
+    private static final int PREDECESSORS = 50;
+
+    // configs checked, wrong ones, and moves that emptied or added a row or column of an index
+    private static long checked, wrong, emptied, added;
+
+    /**
+     * Runs the check
+     * @param args [-seed n] [-boards n] [-states n] [-size n]
+     * @throws IOException if a board can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        long seed = 1;
+        int boards = 100;
+        int states = 1000;
+        int size = 1000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            }
+            else if (args[i].equals("-boards") && i + 1 < args.length) {
+                boards = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-states") && i + 1 < args.length) {
+                states = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-size") && i + 1 < args.length) {
+                size = Integer.parseInt(args[++i]);
+            }
+            else {
+                System.out.println("Usage: java LunarLandingMoveCheck [-seed n] [-boards n] [-states n] [-size n]");
+                return;
+            }
+        }
+
+        Random random = new Random(seed);
+        Path file = Files.createTempFile("lula-check", ".txt");
+        try {
+            for (int board = 0; board < boards; board++) {
+                // every other board is small enough for bit scans, the rest as big as -size allows
+                boolean small = board % 2 == 0 || size <= 8;
+                int rows = 1 + random.nextInt(small ? Math.min(8, size) : size);
+                int columns = 1 + random.nextInt(small ? Math.min(8, size) : size);
+                if (!small && rows <= 8 && columns <= 8) {
+                    columns = 9 + random.nextInt(size - 8);
+                }
+                int figures = 1 + random.nextInt(Math.min(rows * columns, small ? 12 : 40));
+                Files.writeString(file, board(random, rows, columns, figures));
+                LunarLandingConfig start = new LunarLandingConfig(file.toString());
+                if (start.getExceptionCaught()) {
+                    throw new IOException("Could not read a board of " + rows + " by " + columns);
+                }
+                search(start, states, !small);
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+
+        System.out.println(boards + " boards, " + checked + " configs checked, " + wrong + " wrong, "
+                + emptied + " moves emptied a line, " + added + " added one");
+        if (wrong > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes a random board in the form of a puzzle file
+     * @param random where the places come from
+     * @param rows rows of the board
+     * @param columns columns of the board
+     * @param figures number of figures, the explorer and then robots
+     * @return text of the file
+     */
+    private static String board(Random random, int rows, int columns, int figures) {
+        StringBuilder text = new StringBuilder();
+        text.append(rows).append(' ').append(columns).append(' ')
+                .append(random.nextInt(rows)).append(' ').append(random.nextInt(columns)).append('\n');
+        Set<Long> used = new HashSet<>();
+        for (int figure = 0; figure < figures; figure++) {
+            int row, col;
+            do {
+                row = random.nextInt(rows);
+                col = random.nextInt(columns);
+            } while (!used.add((long) row * columns + col));
+            text.append(figure == 0 ? "E" : "R" + figure).append(' ').append(row).append(' ').append(col).append('\n');
+        }
+        return text.append('\n').toString();
+    }
+
+    /**
+     * Checks the configs reached from a start, breadth first
+     * @param start config read from a board
+     * @param states most configs to check
+     * @param indexed whether the board is big enough to use the row and column indexes
+     */
+    private static void search(LunarLandingConfig start, int states, boolean indexed) {
+        List<LunarLandingConfig> queue = new ArrayList<>(List.of(start));
+        Set<Configuration> seen = new HashSet<>(queue);
+        for (int i = 0; i < queue.size() && i < states; i++) {
+            LunarLandingConfig config = queue.get(i);
+            Map<String, Coordinates> figures = config.getFigures();
+            List<Map<String, Coordinates>> moves = new ArrayList<>();
+            for (Iterator<Configuration> nbrs = config.neighbors(); nbrs.hasNext(); ) {
+                LunarLandingConfig nbr = (LunarLandingConfig) nbrs.next();
+                Map<String, Coordinates> moved = nbr.getFigures();
+                moves.add(moved);
+                if (indexed) {
+                    countLines(figures, moved);
+                }
+                if (seen.add(nbr)) {
+                    queue.add(nbr);
+                }
+            }
+            List<Map<String, Coordinates>> expected = moves(figures);
+            boolean right = moves.size() == expected.size() && new HashSet<>(expected).equals(new HashSet<>(moves));
+            right &= playerMoves(config, figures);
+            if (i < PREDECESSORS) {
+                for (Configuration pred : config.getPredecessors()) {
+                    right &= pred.getNeighbors().contains(config);
+                }
+            }
+            checked++;
+            if (!right && wrong++ < SHOWN) {
+                System.out.println("Wrong moves from " + config.getRow() + " by " + config.getColumn()
+                        + " board " + figures + "\n  expected " + expected + "\n  got " + moves);
+            }
+        }
+    }
+
+    /**
+     * Checks every move a player can ask for against the rule: canMove, the MoveNorth family,
+     * and the copy constructor, which leaves the board as it is when the figure can't move
+     * @param config config the moves are made from
+     * @param figures where each figure is
+     * @return whether they all agree with the rule
+     */
+    private static boolean playerMoves(LunarLandingConfig config, Map<String, Coordinates> figures) {
+        boolean right = true;
+        for (String figure : figures.keySet()) {
+            for (int direction = 0; direction < STEPS.length; direction++) {
+                Coordinates stop = stop(figures, figures.get(figure), STEPS[direction]);
+                String name = DIRECTIONS[direction];
+                Coordinates moved = switch (direction) {
+                    case 0 -> config.MoveNorth(figure);
+                    case 1 -> config.MoveSouth(figure);
+                    case 2 -> config.MoveWest(figure);
+                    default -> config.MoveEast(figure);
+                };
+                String can = config.canMove(figure, name.toLowerCase());
+                Map<String, Coordinates> expected = new HashMap<>(figures);
+                if (stop != null) {
+                    expected.put(figure, stop);
+                }
+                right &= Objects.equals(stop, moved)
+                        && can.equalsIgnoreCase(stop == null ? "Can not move" : name)
+                        && new LunarLandingConfig(config, name, figure).getFigures().equals(expected);
+            }
+        }
+        return right;
+    }
+
+    /**
+     * Makes every move by the plain rule. A figure already next to the nearest one stays
+     * where it is, which the configs count as a move too.
+     * @param figures where each figure is
+     * @return where each figure is after each move that can be made
+     */
+    private static List<Map<String, Coordinates>> moves(Map<String, Coordinates> figures) {
+        List<Map<String, Coordinates>> moves = new ArrayList<>();
+        for (Map.Entry<String, Coordinates> figure : figures.entrySet()) {
+            for (int[] step : STEPS) {
+                Coordinates stop = stop(figures, figure.getValue(), step);
+                if (stop != null) {
+                    Map<String, Coordinates> moved = new HashMap<>(figures);
+                    moved.put(figure.getKey(), stop);
+                    moves.add(moved);
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Finds where a figure stops by the plain rule, looking at every figure for the nearest one
+     * @param figures where each figure is
+     * @param from where the moving figure is
+     * @param step direction as a row and column step
+     * @return the place next to the nearest figure, null if there is none that way
+     */
+    private static Coordinates stop(Map<String, Coordinates> figures, Coordinates from, int[] step) {
+        Coordinates nearest = null;
+        int distance = Integer.MAX_VALUE;
+        for (Coordinates other : figures.values()) {
+            int rows = other.row() - from.row();
+            int cols = other.col() - from.col();
+            int away;
+            if (step[0] != 0 && cols == 0 && Integer.signum(rows) == step[0]) {
+                away = Math.abs(rows);
+            }
+            else if (step[1] != 0 && rows == 0 && Integer.signum(cols) == step[1]) {
+                away = Math.abs(cols);
+            }
+            else {
+                continue;
+            }
+            if (away < distance) {
+                distance = away;
+                nearest = other;
+            }
+        }
+        return nearest == null ? null : new Coordinates(nearest.row() - step[0], nearest.col() - step[1]);
+    }
+
+    /**
+     * Counts whether a move left a row or column without figures, or moved onto one that had none
+     * @param before where each figure was
+     * @param after where each figure is after the move
+     */
+    private static void countLines(Map<String, Coordinates> before, Map<String, Coordinates> after) {
+        for (Map.Entry<String, Coordinates> figure : before.entrySet()) {
+            Coordinates from = figure.getValue();
+            Coordinates to = after.get(figure.getKey());
+            if (from.equals(to)) {
+                continue;
+            }
+            // a move keeps its line, so only the line across it is left or joined
+            boolean vertical = from.col() == to.col();
+            boolean alone = true, empty = true;
+            for (Coordinates other : before.values()) {
+                if (other != from) {
+                    int line = vertical ? other.row() : other.col();
+                    alone &= line != (vertical ? from.row() : from.col());
+                    empty &= line != (vertical ? to.row() : to.col());
+                }
+            }
+            if (alone) {
+                emptied++;
+            }
+            if (empty) {
+                added++;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package puzzles.batch;
+
+import solver.Configuration;
+import solver.SolveResult;
+import solver.Solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Solves every puzzle that has a file in output/ again and compares the work done with
+ * what the file records. The counts of a breadth first search don't depend on timing,
+ * so any change in them comes from a change to the solver or the configs. A puzzle fails
+ * if more configs were generated or more unique configs seen than the file has, or if
+ * the solution is a different length. Fewer configs pass, and with -update the files
+ * are rewritten with the new counts, so the next run has to do at least as well.
+ * A change that is meant to search more, such as counting configs differently, is
+ * recorded with -accept, which rewrites every file with what the solver does now.
+ * <br><br>
+ * The run exits with status 1 if any puzzle failed.
+ *
+ * @author Darian Cheung
+ */
+public class RegressionGate {
+
+    /**
+     * What a solution file records
+     * @param total configs generated
+     * @param unique different configs seen
+     * @param steps configs on the solution path, 0 if there is no solution
+     */
+    record Counts(long total, long unique, int steps) {
+
+        /**
+         * Reads the counts from the text of a solution file
+         * @param text text written by {@link BatchSolve#format(SolveResult)}
+         * @return Counts
+         * @throws IllegalArgumentException if the text has no counts
+         */
+        static Counts parse(String text) {
+            long total = -1, unique = -1;
+            int steps = 0;
+            for (String line : text.split("\n")) {
+                if (line.startsWith("Total configs: ")) {
+                    total = Long.parseLong(line.substring("Total configs: ".length()).trim());
+                }
+                else if (line.startsWith("Unique configs: ")) {
+                    unique = Long.parseLong(line.substring("Unique configs: ".length()).trim());
+                }
+                else if (line.startsWith("Step ")) {
+                    steps++;
+                }
+            }
+            if (total < 0 || unique < 0) {
+                throw new IllegalArgumentException("No config counts");
+            }
+            return new Counts(total, unique, steps);
+        }
+    }
+
+    /**
+     * Runs the gate
+     * @param args [-data directory] [-golden directory] [-update | -accept]
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path data = Path.of("data");
+        Path golden = Path.of("output");
+        boolean update = false;
+        boolean accept = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-data") && i + 1 < args.length) {
+                data = Path.of(args[++i]);
+            }
+            else if (args[i].equals("-golden") && i + 1 < args.length) {
+                golden = Path.of(args[++i]);
+            }
+            else if (args[i].equals("-update")) {
+                update = true;
+            }
+            else if (args[i].equals("-accept")) {
+                accept = true;
+            }
+            else {
+                System.out.println("Usage: java RegressionGate [-data directory] [-golden directory] [-update | -accept]");
+                return;
+            }
+        }
+
+        System.out.printf("%-28s %12s %12s %12s %12s %6s %6s  %s%n", "Puzzle", "total", "was",
+                "unique", "was", "steps", "was", "");
+        int failed = 0, improved = 0, checked = 0;
+        for (Path file : goldenFiles(golden)) {
+            Path relative = golden.relativize(file);
+            Path puzzle = data.resolve(relative);
+            BatchSolve.Kind kind = BatchSolve.Kind.of(puzzle);
+            String verdict;
+            Counts was = null, now = null;
+            SolveResult result = null;
+            try {
+                was = Counts.parse(Files.readString(file));
+                if (kind == null || !Files.isRegularFile(puzzle)) {
+                    throw new IOException("No puzzle " + puzzle);
+                }
+                Configuration config = kind.read(puzzle);
+                result = Solver.solve(config);
+                now = new Counts(result.getMetrics().getGenerated(), result.getMetrics().getUnique(),
+                        result.getPath().size());
+                verdict = verdict(was, now);
+            }
+            catch (IOException | RuntimeException e) {
+                verdict = "FAIL " + e.getMessage();
+            }
+            checked++;
+            if (verdict.startsWith("FAIL")) {
+                failed++;
+            }
+            else if (!verdict.equals("ok")) {
+                improved++;
+            }
+            System.out.printf("%-28s %12s %12s %12s %12s %6s %6s  %s%n", relative,
+                    now == null ? "-" : now.total, was == null ? "-" : was.total,
+                    now == null ? "-" : now.unique, was == null ? "-" : was.unique,
+                    now == null ? "-" : now.steps, was == null ? "-" : was.steps, verdict);
+            if (result != null && (accept || update && !verdict.startsWith("FAIL") && !verdict.equals("ok"))) {
+                Files.writeString(file, BatchSolve.format(result));
+            }
+        }
+
+        System.out.println(checked + " puzzles, " + failed + " failed, " + improved + " did less work"
+                + (accept ? ", all files were rewritten" : update && improved > 0 ? ", their files were updated" : ""));
+        if (failed > 0 && !accept) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares the counts of a search with the recorded ones
+     * @param was recorded counts
+     * @param now counts of the new search
+     * @return "ok" if they're the same, "less work" if fewer configs were searched, otherwise FAIL and why
+     */
+    static String verdict(Counts was, Counts now) {
+        if (now.steps != was.steps) {
+            return "FAIL solution has " + now.steps + " steps, not " + was.steps;
+        }
+        if (now.total > was.total || now.unique > was.unique) {
+            return "FAIL more configs searched";
+        }
+        if (now.total < was.total || now.unique < was.unique) {
+            return "less work";
+        }
+        return "ok";
+    }
+
+    /**
+     * Lists the solution files under the golden directory, sorted
+     * @param golden directory of solution files
+     * @return files
+     * @throws IOException if the directory can't be listed
+     */
+    private static List<Path> goldenFiles(Path golden) throws IOException {
+        try (Stream<Path> files = Files.walk(golden)) {
+            return files.filter(Files::isRegularFile).filter(file -> file.toString().endsWith(".txt"))
+                    .sorted().toList();
+        }
+    }
+}
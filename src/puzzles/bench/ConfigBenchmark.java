@@ -0,0 +1,272 @@
+package puzzles.bench;
+
+import puzzles.lunarlanding.model.LunarLandingConfig;
+import puzzles.tipover.model.TipOverConfig;
+import solver.ClockConfig;
+import solver.Configuration;
+import solver.WaterConfig;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.IntToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Measures the per expansion cost of every config: getNeighbors, equals and hashCode,
+ * run over configs sampled by a breadth first search of real puzzles. Each measurement
+ * warms up first, then reports operations per second with the spread over its timed
+ * iterations, and the bytes allocated per operation and per second, read from the
+ * thread's allocation counter.
+ * <br><br>
+ * Arguments pick the puzzles to run by name, such as tipover-7 or clock, all of them if
+ * there are none. Settings are system properties: bench.warmup and bench.iterations
+ * count iterations, bench.time is the milliseconds of each one, bench.states is the most
+ * configs sampled per puzzle, and bench.csv names a file each result is added to as a
+ * line, so the numbers can be followed from run to run.
+ *
+ * @author Darian Cheung
+ */
+public class ConfigBenchmark {
+
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 3);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    private static final long ITERATION_NANOS = Long.getLong("bench.time", 500) * 1_000_000;
+    private static final int STATES = Integer.getInteger("bench.states", 1000);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // results of the benchmarked calls end up here, so the JIT can't drop the calls
+    private static volatile long sink;
+
+    /**
+     * A puzzle to sample configs from
+     * @param name name to pick it by
+     * @param start makes the starting config, setting any state its config class shares
+     */
+    private record Puzzle(String name, Start start) {
+    }
+
+    /**
+     * Makes a starting config
+     */
+    private interface Start {
+        Configuration make() throws FileNotFoundException;
+    }
+
+    /**
+     * The measurements of one benchmark
+     * @param benchmark method measured
+     * @param puzzle puzzle the configs came from
+     * @param states configs it ran over
+     * @param opsPerSecond mean operations per second over the timed iterations
+     * @param error standard deviation of the operations per second
+     * @param bytesPerOp bytes allocated per operation
+     * @param bytesPerSecond bytes allocated per second
+     */
+    private record Result(String benchmark, String puzzle, int states, double opsPerSecond, double error,
+                          double bytesPerOp, double bytesPerSecond) {
+    }
+
+    /**
+     * Runs the benchmarks
+     * @param args names of the puzzles to run, all of them if empty
+     * @throws IOException if a puzzle or the csv file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.out.println("Allocation can't be measured on this JVM");
+        }
+        else {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+        System.out.printf("%-13s %-14s %6s %14s %12s %12s %12s%n",
+                "Benchmark", "Puzzle", "States", "ops/s", "error", "B/op", "MB/s");
+        for (Puzzle puzzle : puzzles()) {
+            if (args.length > 0 && Arrays.stream(args).noneMatch(puzzle.name::startsWith)) {
+                continue;
+            }
+            for (Result result : run(puzzle)) {
+                System.out.printf("%-13s %-14s %6d %14.1f %12.1f %12.1f %12.1f%n", result.benchmark,
+                        result.puzzle, result.states, result.opsPerSecond, result.error,
+                        result.bytesPerOp, result.bytesPerSecond / 1e6);
+                record(result);
+            }
+        }
+    }
+
+    /**
+     * Returns the puzzles to sample: a clock, a set of buckets, and every puzzle file in data/
+     * @return List of puzzles
+     * @throws IOException if the data directories can't be listed
+     */
+    private static List<Puzzle> puzzles() throws IOException {
+        List<Puzzle> puzzles = new ArrayList<>();
+        puzzles.add(new Puzzle("clock-10000", () -> new ClockConfig(10000, 1, 9999)));
+        puzzles.add(new Puzzle("water-13-17-23", () -> new WaterConfig(11,
+                new ArrayList<>(List.of(13, 17, 23)), new ArrayList<>(List.of(0, 0, 0)))));
+        for (Path file : files(Path.of("data", "tipover"), "tipover-.\\.txt")) {
+            puzzles.add(new Puzzle(name(file), () -> new TipOverConfig(file.toString())));
+        }
+        for (Path file : files(Path.of("data", "lunarlanding"), "lula-.\\.txt")) {
+            puzzles.add(new Puzzle(name(file), () -> new LunarLandingConfig(file.toString())));
+        }
+        return puzzles;
+    }
+
+    /**
+     * Samples a puzzle twice and measures each method over the samples
+     * @param puzzle puzzle to run
+     * @return a result for each method
+     * @throws FileNotFoundException if the puzzle file isn't there
+     */
+    private static List<Result> run(Puzzle puzzle) throws FileNotFoundException {
+        // two samples of equal configs in the same order, so equals compares different objects
+        List<Configuration> configs = sample(puzzle.start.make());
+        List<Configuration> copies = sample(puzzle.start.make());
+        int states = configs.size();
+        return List.of(
+                measure("getNeighbors", puzzle, states, i -> configs.get(i).getNeighbors().size()),
+                measure("equals", puzzle, states, i -> configs.get(i).equals(copies.get(i)) ? 1 : 0),
+                measure("hashCode", puzzle, states, i -> configs.get(i).hashCode()));
+    }
+
+    /**
+     * Collects configs in the order a breadth first search from the start reaches them
+     * @param start starting config
+     * @return up to bench.states configs
+     */
+    private static List<Configuration> sample(Configuration start) {
+        List<Configuration> configs = new ArrayList<>();
+        Set<Configuration> seen = new HashSet<>();
+        configs.add(start);
+        seen.add(start);
+        for (int next = 0; next < configs.size() && configs.size() < STATES; next++) {
+            for (Iterator<Configuration> nbrs = configs.get(next).neighbors();
+                 nbrs.hasNext() && configs.size() < STATES; ) {
+                Configuration nbr = nbrs.next();
+                if (seen.add(nbr)) {
+                    configs.add(nbr);
+                }
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Calls an operation on every sampled config, over and over, for the warmup then the timed iterations
+     * @param benchmark name of the method measured
+     * @param puzzle puzzle the configs came from
+     * @param states number of sampled configs
+     * @param operation calls the method on the config at an index
+     * @return Result
+     */
+    private static Result measure(String benchmark, Puzzle puzzle, int states, IntToLongFunction operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            iteration(states, operation);
+        }
+        double[] opsPerSecond = new double[ITERATIONS];
+        long ops = 0, nanos = 0, bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long[] iteration = iteration(states, operation);
+            ops += iteration[0];
+            nanos += iteration[1];
+            bytes += iteration[2];
+            opsPerSecond[i] = iteration[0] * 1e9 / iteration[1];
+        }
+        double mean = Arrays.stream(opsPerSecond).average().orElse(0);
+        double variance = Arrays.stream(opsPerSecond).map(x -> (x - mean) * (x - mean)).sum()
+                / Math.max(1, ITERATIONS - 1);
+        return new Result(benchmark, puzzle.name, states, mean, Math.sqrt(variance),
+                (double) bytes / ops, bytes * 1e9 / nanos);
+    }
+
+    /**
+     * Runs the operation over all the configs until the iteration's time is up
+     * @param states number of sampled configs
+     * @param operation calls the method on the config at an index
+     * @return operations, nanoseconds and bytes allocated
+     */
+    private static long[] iteration(int states, IntToLongFunction operation) {
+        long result = 0;
+        long ops = 0;
+        long bytes = allocated();
+        long start = System.nanoTime();
+        long now;
+        do {
+            for (int i = 0; i < states; i++) {
+                result += operation.applyAsLong(i);
+            }
+            ops += states;
+            now = System.nanoTime();
+        } while (now - start < ITERATION_NANOS);
+        bytes = allocated() - bytes;
+        sink += result;
+        return new long[] {ops, now - start, bytes};
+    }
+
+    /**
+     * Returns the bytes this thread has allocated so far
+     * @return bytes, 0 if the JVM can't tell
+     */
+    private static long allocated() {
+        return THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Adds a result to the bench.csv file, if one was named, writing the header if the file is new
+     * @param result result to add
+     */
+    private static void record(Result result) {
+        String csv = System.getProperty("bench.csv");
+        if (csv == null) {
+            return;
+        }
+        Path file = Path.of(csv);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (Files.size(file) == 0) {
+                out.println("time,benchmark,puzzle,states,ops_per_sec,error,bytes_per_op,bytes_per_sec");
+            }
+            out.printf(Locale.ROOT, "%s,%s,%s,%d,%.1f,%.1f,%.1f,%.1f%n", Instant.now(), result.benchmark,
+                    result.puzzle, result.states, result.opsPerSecond, result.error,
+                    result.bytesPerOp, result.bytesPerSecond);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+        }
+    }
+
+    /**
+     * Lists the puzzle files in a directory, by name
+     * @param directory directory to list
+     * @param pattern names to keep
+     * @return sorted files
+     * @throws IOException if the directory can't be listed
+     */
+    private static List<Path> files(Path directory, String pattern) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches(pattern)).sorted().toList();
+        }
+    }
+
+    /**
+     * Returns a puzzle file's name without .txt
+     * @param file puzzle file
+     * @return name
+     */
+    private static String name(Path file) {
+        return file.getFileName().toString().replaceFirst("\\.txt$", "");
+    }
+}
@@ -27,7 +27,7 @@ public class Clock {
             // Creates clock config and will print the clock's path
             ClockConfig clock = new ClockConfig(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
             System.out.println("Hours: " + args[0] + ", Start: " + args[1] + ", End: " + args[2]);
-            List<Configuration> path = Solver.solve(clock);
+            List<Configuration> path = Solver.solve(clock).getPath();
             if (path.size() > 0) {
                 for (int i = 0; i < path.size(); i++) {
                     System.out.println("Step " + i + ": " + path.get(i));
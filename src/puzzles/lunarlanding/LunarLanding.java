@@ -1,9 +1,16 @@
 package puzzles.lunarlanding;
 
 import puzzles.lunarlanding.model.LunarLandingConfig;
+import puzzles.lunarlanding.model.LunarLandingHeuristic;
+import solver.AStarSolver;
 import solver.Configuration;
+import solver.SolutionStore;
+import solver.SolveResult;
 import solver.Solver;
+import solver.SolverOptions;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -13,6 +20,9 @@ import java.util.List;
  */
 public class LunarLanding {
 
+    //how long the A* search run for its expanded count may take
+    private static final Duration A_STAR_TIMEOUT = Duration.ofSeconds(10);
+
     /*
      * code to read the file name from the command line and
      * run the solver on the puzzle
@@ -25,10 +35,28 @@ public class LunarLanding {
         else{
             //fix the configuration
             LunarLandingConfig lunar = new LunarLandingConfig(args[0]);
-            // prints out the solution, solution is not fully made yet
-            List<Configuration> path = Solver.solve(lunar);
-            System.out.println("Total Configs: " + lunar.returnTotal());
-            System.out.println("Unique Configs: " + lunar.returnUnique());
+            // a puzzle solved before is read from the solution store instead of solved again
+            Path puzzle = Path.of(args[0]);
+            boolean known = !lunar.getExceptionCaught();
+            SolveResult result = known ? SolutionStore.shared().get(puzzle, lunar) : null;
+            boolean solved = result == null;
+            if (solved) {
+                result = Solver.solve(lunar);
+                if (known) {
+                    SolutionStore.shared().put(puzzle, lunar, result);
+                }
+            }
+            List<Configuration> path = result.getPath();
+            System.out.println(result.getMetrics());
+            if (solved) {
+                SolveResult aStar = new AStarSolver(new LunarLandingHeuristic())
+                        .solve(lunar, new SolverOptions().timeout(A_STAR_TIMEOUT));
+                System.out.println("Expanded Configs (A*): " + aStar.getMetrics().getExpanded()
+                        + (aStar.getStatus() == SolveResult.Status.BUDGET_EXCEEDED ? ", stopped at the time limit" : ""));
+            }
+            else {
+                System.out.println("Expanded Configs (A*): not run, the solution was cached");
+            }
             if (path.size() > 0) {
                 for (int i = 0; i < path.size(); i++) {
                     System.out.println("Step " + i + ": " + path.get(i));
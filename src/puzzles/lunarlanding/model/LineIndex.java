@@ -0,0 +1,187 @@
+package puzzles.lunarlanding.model;
+
+import java.util.Arrays;
+
+/**
+ * The figures of a board by line: for each row, or each column, that has a figure on it,
+ * the places of the figures along it, smallest first. The nearest figure either way along
+ * a line is then two binary searches, instead of a look at every figure on the board.
+ * <br><br>
+ * An index is never changed. Moving a figure makes a new index that shares every line
+ * but the ones the figure left and joined, so a config and the configs one move from it
+ * share most of their index.
+ *
+ * @author Lucie Lim
+ * November 2021
+ */
+final class LineIndex {
+
+    //numbers of the lines with figures, smallest first
+    private final int[] lines;
+    //places of the figures on each of those lines, smallest first
+    private final int[][] places;
+
+    private LineIndex(int[] lines, int[][] places) {
+        this.lines = lines;
+        this.places = places;
+    }
+
+    /**
+     * Indexes figures by row, with their columns as places, or by column, with their rows as places
+     *
+     * @param cells the cell of each figure, as row * column + col
+     * @param column the number of columns of the board
+     * @param byRow whether the lines are rows
+     * @return LineIndex
+     */
+    static LineIndex of(int[] cells, int column, boolean byRow) {
+        //each figure as its line then its place, so sorting puts them in order of both
+        long[] sorted = new long[cells.length];
+        int i = 0;
+        for (int cell : cells) {
+            int line = byRow ? cell / column : cell % column;
+            int place = byRow ? cell % column : cell / column;
+            sorted[i++] = ((long) line << 32) | place;
+        }
+        Arrays.sort(sorted);
+        int count = 0;
+        for (i = 0; i < sorted.length; i++) {
+            if (i == 0 || (sorted[i] >>> 32) != (sorted[i - 1] >>> 32)) {
+                count++;
+            }
+        }
+        int[] lines = new int[count];
+        int[][] places = new int[count][];
+        int start = 0;
+        for (int l = 0; l < count; l++) {
+            int end = start;
+            while (end < sorted.length && (sorted[end] >>> 32) == (sorted[start] >>> 32)) {
+                end++;
+            }
+            lines[l] = (int) (sorted[start] >>> 32);
+            places[l] = new int[end - start];
+            for (i = start; i < end; i++) {
+                places[l][i - start] = (int) sorted[i];
+            }
+            start = end;
+        }
+        return new LineIndex(lines, places);
+    }
+
+    /**
+     * Finds the nearest figure on a line before a place
+     *
+     * @param line row or column
+     * @param place place along the line
+     * @return int place of the figure, -1 if there is none
+     */
+    int before(int line, int place) {
+        int l = Arrays.binarySearch(lines, line);
+        if (l < 0) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(places[l], place);
+        //the figures before are the ones below the place, or below where it would go
+        i = i >= 0 ? i - 1 : -i - 2;
+        return i >= 0 ? places[l][i] : -1;
+    }
+
+    /**
+     * Finds the nearest figure on a line after a place
+     *
+     * @param line row or column
+     * @param place place along the line
+     * @return int place of the figure, -1 if there is none
+     */
+    int after(int line, int place) {
+        int l = Arrays.binarySearch(lines, line);
+        if (l < 0) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(places[l], place);
+        i = i >= 0 ? i + 1 : -i - 1;
+        return i < places[l].length ? places[l][i] : -1;
+    }
+
+    /**
+     * Checks if a figure is at a place on a line
+     *
+     * @param line row or column
+     * @param place place along the line
+     * @return boolean
+     */
+    boolean contains(int line, int place) {
+        int l = Arrays.binarySearch(lines, line);
+        return l >= 0 && Arrays.binarySearch(places[l], place) >= 0;
+    }
+
+    /**
+     * Makes the index with one figure moved, sharing the lines it didn't leave or join
+     *
+     * @param fromLine line the figure was on
+     * @param fromPlace place the figure was at
+     * @param toLine line the figure moves to
+     * @param toPlace place the figure moves to
+     * @return LineIndex
+     */
+    LineIndex moved(int fromLine, int fromPlace, int toLine, int toPlace) {
+        return without(fromLine, fromPlace).with(toLine, toPlace);
+    }
+
+    /**
+     * Makes the index with a figure taken off a line, dropping the line if it was the last one on it
+     */
+    private LineIndex without(int line, int place) {
+        int l = Arrays.binarySearch(lines, line);
+        if (l < 0) {
+            return this;
+        }
+        int i = Arrays.binarySearch(places[l], place);
+        if (i < 0) {
+            return this;
+        }
+        if (places[l].length == 1) {
+            int[] newLines = new int[lines.length - 1];
+            int[][] newPlaces = new int[lines.length - 1][];
+            System.arraycopy(lines, 0, newLines, 0, l);
+            System.arraycopy(lines, l + 1, newLines, l, lines.length - l - 1);
+            System.arraycopy(places, 0, newPlaces, 0, l);
+            System.arraycopy(places, l + 1, newPlaces, l, lines.length - l - 1);
+            return new LineIndex(newLines, newPlaces);
+        }
+        int[] newLine = new int[places[l].length - 1];
+        System.arraycopy(places[l], 0, newLine, 0, i);
+        System.arraycopy(places[l], i + 1, newLine, i, newLine.length - i);
+        int[][] newPlaces = places.clone();
+        newPlaces[l] = newLine;
+        return new LineIndex(lines, newPlaces);
+    }
+
+    /**
+     * Makes the index with a figure put on a line, adding the line if it had none
+     */
+    private LineIndex with(int line, int place) {
+        int l = Arrays.binarySearch(lines, line);
+        if (l < 0) {
+            l = -l - 1;
+            int[] newLines = new int[lines.length + 1];
+            int[][] newPlaces = new int[lines.length + 1][];
+            System.arraycopy(lines, 0, newLines, 0, l);
+            System.arraycopy(lines, l, newLines, l + 1, lines.length - l);
+            System.arraycopy(places, 0, newPlaces, 0, l);
+            System.arraycopy(places, l, newPlaces, l + 1, lines.length - l);
+            newLines[l] = line;
+            newPlaces[l] = new int[] {place};
+            return new LineIndex(newLines, newPlaces);
+        }
+        int i = Arrays.binarySearch(places[l], place);
+        i = i >= 0 ? i : -i - 1;
+        int[] newLine = new int[places[l].length + 1];
+        System.arraycopy(places[l], 0, newLine, 0, i);
+        System.arraycopy(places[l], i, newLine, i + 1, places[l].length - i);
+        newLine[i] = place;
+        int[][] newPlaces = places.clone();
+        newPlaces[l] = newLine;
+        return new LineIndex(lines, newPlaces);
+    }
+}
@@ -2,7 +2,7 @@ package puzzles.lunarlanding.model;
 
 import solver.Configuration;
 import util.Coordinates;
-import util.Grid;
+import util.ZobristTable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.*;
@@ -17,17 +17,46 @@ import java.util.Scanner;
 
 public class LunarLandingConfig implements Configuration {
     private boolean exceptionCaught = false;
-    private Grid<String> board;
     private int row;
     private int column;
     private int numOfConfigs = 0;
-    private int total = 1;
-    private int unique = 1;
 
     private Coordinates lunarLanderCoordinates;
 
-    //holds the info of the figures
-    private HashMap<String, Coordinates> figures;
+    //the letter of each figure, smallest first, shared by every config of the puzzle; a figure's number
+    //is its place here, and figures are moved and packed into a key in this order
+    private String[] figureOrder;
+    //number of the explorer, -1 if there is none
+    private int explorer;
+    //the cell each figure is on, as row * column + col, by figure number
+    private int[] cells;
+    //the bits each position takes in a key
+    private int positionBits;
+
+    //keys of a robot, value 0, and the explorer, value 1, on each cell, shared by every config of the puzzle,
+    //and the exclusive or of the keys of the figures, which a move changes by the keys of one figure
+    private ZobristTable zobristTable;
+    private long zobrist;
+
+    //cells the robots are on, smallest first, null until equals, hashCode or key needs them
+    private int[] robotCells;
+
+    //whether shifted, turned and mirrored copies of a position are equal, see withSymmetry
+    private boolean symmetric;
+    //canonical form of the position for a symmetric config, null until equals or hashCode needs it
+    private int[] shape;
+
+    //on boards up to 8x8, the cells with a figure as bits: row * 8 + col in rowBits and col * 8 + row
+    //in colBits, so each row and each column is one byte and the nearest figure is a bit scan away
+    private boolean bitboard;
+    private long rowBits;
+    private long colBits;
+    //on bigger boards, the figures by row and by column, null until a move needs them
+    private LineIndex rowIndex;
+    private LineIndex colIndex;
+
+    //directions a figure is tried in, as canMove takes them
+    private static final String[] DIRECTIONS = {"north", "south", "west", "east"};
 
     /**
      * Construct the initial configuration from an input file
@@ -44,12 +73,11 @@ public class LunarLandingConfig implements Configuration {
 
             this.row = Integer.parseInt(lines[0]);
             this.column = Integer.parseInt(lines[1]);
-            this.board = new Grid("_", row, column);
 
             //makes the coordinates of the lunar lander
             lunarLanderCoordinates = new Coordinates(Integer.parseInt(lines[2]), Integer.parseInt(lines[3]));
 
-            figures = new HashMap<>();
+            HashMap<String, Coordinates> figures = new HashMap<>();
 
             //gets the info for the other robots and puts them into a hashmap
             String nextLine = in.nextLine();
@@ -63,13 +91,21 @@ public class LunarLandingConfig implements Configuration {
                 nextLine = in.nextLine();
             }
 
-            //makes the grid
-            Set<String> keys = figures.keySet();
-            for (String key : keys) {
-                board.set(key, figures.get(key).row(), figures.get(key).col());
-
+            //numbers the figures and puts them on their cells
+            figureOrder = new TreeSet<>(figures.keySet()).toArray(new String[0]);
+            explorer = figure("E");
+            cells = new int[figureOrder.length];
+            for (int figure = 0; figure < figureOrder.length; figure++) {
+                cells[figure] = cell(figures.get(figureOrder[figure]));
             }
-            board.set("!", lunarLanderCoordinates.row(), lunarLanderCoordinates.col());
+            zobristTable = new ZobristTable(row * column, 2);
+            zobrist = zobrist(cells);
+
+            //marks where the figures are
+            bitboard = row <= 8 && column <= 8;
+            placeBits();
+
+            positionBits = 64 - Long.numberOfLeadingZeros((long) row * column - 1);
             exceptionCaught = false;
 
         } catch (FileNotFoundException e) {
@@ -79,51 +115,198 @@ public class LunarLandingConfig implements Configuration {
     }
 
     /**
-     * The copy constructor takes a config, other, and makes a full "deep" copy
-     * of its instance data.
+     * The copy constructor takes a config, other, and makes a copy of it with a figure moved.
+     * Where the figure stops is worked out on other, whose figures are all in place.
      *
      * @param other the config to copy
      * @param direction the direction to which make configurations for
      * @param figureKey the key for a figure's configuration
      */
     public LunarLandingConfig(LunarLandingConfig other, String direction, String figureKey) {
-        this.numOfConfigs = other.numOfConfigs;
-        this.lunarLanderCoordinates = other.lunarLanderCoordinates;
-        this.row = other.row;
-        this.column = other.column;
-
-        //this.figureKeysList = new ArrayList<>(other.figureKeysList);
-        this.figures = new HashMap<>(other.figures);
-
-        //makes a new Grid
-        this.board = new Grid("_", row, column);
-
-        Coordinates newFigCords = null;
+        this(other, other.figure(figureKey), other.destination(other.figure(figureKey), direction));
+    }
 
+    /**
+     * Works out the cell a figure ends up on when it moves in a direction
+     *
+     * @param figure the number of the figure being moved
+     * @param direction NORTH, SOUTH, WEST, anything else is EAST
+     * @return int cell it stops at, the cell it's on if nothing stops it
+     */
+    private int destination(int figure, String direction) {
+        int stop;
         //changes the position of a figure
         if (direction.equals("NORTH")) {
-            //north
-            newFigCords = MoveNorth(figureKey);
+            stop = stop(figure, 0);
         } else if (direction.equals("SOUTH")) {
-            //south
-            newFigCords = MoveSouth(figureKey);
+            stop = stop(figure, 1);
         } else if (direction.equals("WEST")) {
-            //west
-            newFigCords = MoveWest(figureKey);
+            stop = stop(figure, 2);
         } else {
-            //east
-            newFigCords = MoveEast(figureKey);
+            stop = stop(figure, 3);
         }
+        return stop < 0 ? cells[figure] : stop;
+    }
+
+    /**
+     * Copies a config, other, and places a figure on the given cell
+     *
+     * @param other the config to copy
+     * @param figure the number of the figure being placed
+     * @param cell where the figure is placed, as row * column + col
+     */
+    private LunarLandingConfig(LunarLandingConfig other, int figure, int cell) {
+        this(other, moveFigure(other.cells, figure, cell),
+                other.zobrist ^ other.zobristKey(figure, other.cells[figure]) ^ other.zobristKey(figure, cell));
+        //only the lines the figure left and joined change, the rest of the index is shared
+        if (other.rowIndex != null) {
+            int from = other.cells[figure];
+            rowIndex = other.rowIndex.moved(from / column, from % column, cell / column, cell % column);
+            colIndex = other.colIndex.moved(from % column, from / column, cell % column, cell / column);
+        }
+    }
+
+    /**
+     * Copies the cells of the figures with one of them on a new cell
+     *
+     * @param cells the cells to copy
+     * @param figure the number of the figure being placed
+     * @param cell where the figure is placed
+     * @return int[] of the cells
+     */
+    private static int[] moveFigure(int[] cells, int figure, int cell) {
+        int[] moved = cells.clone();
+        moved[figure] = cell;
+        return moved;
+    }
 
-        figures.put(figureKey, newFigCords);
+    /**
+     * Copies the puzzle of a config, other, with the figures on new cells
+     *
+     * @param other the config to copy
+     * @param cells the cell of each figure, not copied
+     * @param zobrist the Zobrist hash of the cells
+     */
+    private LunarLandingConfig(LunarLandingConfig other, int[] cells, long zobrist) {
+        this.numOfConfigs = other.numOfConfigs;
+        this.lunarLanderCoordinates = other.lunarLanderCoordinates;
+        this.row = other.row;
+        this.column = other.column;
+        this.figureOrder = other.figureOrder;
+        this.explorer = other.explorer;
+        this.positionBits = other.positionBits;
+        this.symmetric = other.symmetric;
+        this.bitboard = other.bitboard;
+        this.zobristTable = other.zobristTable;
+        this.cells = cells;
+        this.zobrist = zobrist;
+        placeBits();
+    }
+
+    /**
+     * Returns the Zobrist key of a figure on a cell. Robots share their keys, so robots that swap
+     * places give the same hash, like they do for equals.
+     *
+     * @param figure the number of the figure
+     * @param cell the cell it's on
+     * @return long key
+     */
+    private long zobristKey(int figure, int cell) {
+        return zobristTable.key(cell, figure == explorer ? 1 : 0);
+    }
 
-        //places the correct figures in the copy grid
-        Set<String> keys = figures.keySet();
-        for (String key : keys){
-            board.set(key, figures.get(key).row(), figures.get(key).col());
+    /**
+     * Works out the Zobrist hash of figures on cells from scratch
+     *
+     * @param cells the cell of each figure
+     * @return long exclusive or of the keys of the figures
+     */
+    private long zobrist(int[] cells) {
+        long hash = 0;
+        for (int figure = 0; figure < cells.length; figure++) {
+            hash ^= zobristKey(figure, cells[figure]);
         }
-        board.set("!", lunarLanderCoordinates.row(), lunarLanderCoordinates.col());
+        return hash;
+    }
+
+    /**
+     * Sets the bits of the cells the figures are on, if the board is small enough for them
+     */
+    private void placeBits() {
+        rowBits = 0;
+        colBits = 0;
+        if (bitboard) {
+            for (int cell : cells) {
+                rowBits |= 1L << (cell / column * 8 + cell % column);
+                colBits |= 1L << (cell % column * 8 + cell / column);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of a figure
+     *
+     * @param figure the figure's letter
+     * @return int place of the letter in figureOrder, -1 if there is no such figure
+     */
+    private int figure(String figure) {
+        int number = Arrays.binarySearch(figureOrder, figure);
+        return number >= 0 ? number : -1;
+    }
+
+    /**
+     * Returns the cell of a place on the board
+     *
+     * @param coordinates row and column
+     * @return int row * column + col
+     */
+    private int cell(Coordinates coordinates) {
+        return coordinates.row() * column + coordinates.col();
+    }
 
+    /**
+     * Returns the row and column of a cell
+     *
+     * @param cell row * column + col, or -1
+     * @return Coordinates, null for -1
+     */
+    private Coordinates coordinates(int cell) {
+        return cell < 0 ? null : new Coordinates(cell / column, cell % column);
+    }
+
+    /**
+     * Returns the cell the explorer is on
+     *
+     * @return int cell, -1 if there is no explorer
+     */
+    private int explorerCell() {
+        return explorer < 0 ? -1 : cells[explorer];
+    }
+
+    /**
+     * Copies this config, choosing if it and the configs made from it are equal to every shifted, turned
+     * or mirrored copy of their position, on a board of any size. Moves never depend on the edges of the
+     * board, so such copies take the same number of moves to solve, and a search or a cache of solutions
+     * can treat them as one. A path found this way is made of moves of whatever copy it was found from,
+     * so it has to be followed again from the config it is used for, which PathCache does.
+     * Predecessors depend on the edges, so a symmetric config doesn't make them.
+     *
+     * @param symmetric whether copies of a position are equal
+     * @return LunarLandingConfig
+     */
+    public LunarLandingConfig withSymmetry(boolean symmetric) {
+        LunarLandingConfig copy = new LunarLandingConfig(this, cells.clone(), zobrist);
+        copy.symmetric = symmetric;
+        return copy;
+    }
+
+    /**
+     * Returns whether shifted, turned and mirrored copies of this config are equal to it
+     *
+     * @return boolean
+     */
+    public boolean isSymmetric() {
+        return symmetric;
     }
 
     /**
@@ -136,14 +319,28 @@ public class LunarLandingConfig implements Configuration {
         return exceptionCaught;
      }
 
+    /**
+     * Indexes the figures by row and by column, if they aren't yet
+     */
+    private void indexLines() {
+        if (rowIndex == null) {
+            rowIndex = LineIndex.of(cells, column, true);
+            colIndex = LineIndex.of(cells, column, false);
+        }
+    }
+
     /**
      * Sets the chosen figure on the grid to new coordinates and updates the grid
      */
      public void setFigure(String figure, Coordinates coords) {
-         Coordinates oldcords = figures.get(figure);
-         figures.put(figure, coords);
-         board.set(figure, figures.get(figure).row(), figures.get(figure).col());
-         board.set("_", oldcords.row(), oldcords.col());
+         int number = figure(figure);
+         zobrist ^= zobristKey(number, cells[number]) ^ zobristKey(number, cell(coords));
+         cells[number] = cell(coords);
+         robotCells = null;
+         shape = null;
+         rowIndex = null;
+         colIndex = null;
+         placeBits();
      }
 
     /**
@@ -153,15 +350,7 @@ public class LunarLandingConfig implements Configuration {
      * @return Coordinates of the figure after it moves to another figure
      */
     public Coordinates MoveNorth(String currentFigure) {
-        Coordinates newFigCords = null;
-        for (String key : figures.keySet()) {
-            if (figures.get(key).col() == figures.get(currentFigure).col() &&
-                    figures.get(key).row() < figures.get(currentFigure).row()) {
-                //moves the figure
-                newFigCords = new Coordinates(figures.get(key).row() + 1, figures.get(key).col());
-            }
-        }
-        return newFigCords;
+        return coordinates(stop(figure(currentFigure), 0));
     }
 
     /**
@@ -171,14 +360,7 @@ public class LunarLandingConfig implements Configuration {
      * @return Coordinates of the figure after it moves to another figure
      */
     public Coordinates MoveSouth(String currentFigure) {
-        Coordinates newFigCords = null;
-        for (String key : figures.keySet()) {
-            if (figures.get(key).col() == figures.get(currentFigure).col() &&
-                    figures.get(key).row() > figures.get(currentFigure).row()) {
-                newFigCords = new Coordinates(figures.get(key).row() - 1, figures.get(key).col());
-            }
-        }
-        return newFigCords;
+        return coordinates(stop(figure(currentFigure), 1));
     }
 
     /**
@@ -188,14 +370,7 @@ public class LunarLandingConfig implements Configuration {
      * @return Coordinates of the figure after it moves to another figure
      */
     public Coordinates MoveWest(String currentFigure) {
-        Coordinates newFigCords = null;
-        for (String key : figures.keySet()) {
-            if (figures.get(key).row() == figures.get(currentFigure).row() &&
-                    figures.get(key).col() < figures.get(currentFigure).col()) {
-                newFigCords = new Coordinates(figures.get(key).row(), figures.get(key).col() + 1);
-            }
-        }
-        return newFigCords;
+        return coordinates(stop(figure(currentFigure), 2));
     }
 
     /**
@@ -205,14 +380,7 @@ public class LunarLandingConfig implements Configuration {
      * @return Coordinates of the figure after it moves to another figure
      */
     public Coordinates MoveEast(String currentFigure) {
-        Coordinates newFigCords = null;
-        for (String key : figures.keySet()) {
-            if (figures.get(key).row() == figures.get(currentFigure).row() &&
-                    figures.get(key).col() > figures.get(currentFigure).col()) {
-                newFigCords = new Coordinates(figures.get(key).row(), figures.get(key).col() - 1);
-            }
-        }
-        return newFigCords;
+        return coordinates(stop(figure(currentFigure), 3));
     }
 
     /**
@@ -222,7 +390,7 @@ public class LunarLandingConfig implements Configuration {
      */
 
     public boolean isSolution() {
-        if (lunarLanderCoordinates.equals(figures.get("E"))) {
+        if (explorer >= 0 && cells[explorer] == cell(lunarLanderCoordinates)) {
             return true;
         }
         return false;
@@ -235,136 +403,280 @@ public class LunarLandingConfig implements Configuration {
      */
     public Set<Configuration> getNeighbors() {
         HashSet<Configuration> neighbors = new HashSet<>();
+        for (Iterator<Configuration> moves = neighbors(); moves.hasNext(); ) {
+            neighbors.add(moves.next());
+        }
+        return neighbors;
+    }
 
-        //makes 4 configs for each direction for a figure
-        for (String currentFigure: figures.keySet()) {
-            //North
-            if (canMove(currentFigure, "north").equals("North")) {
-                LunarLandingConfig figureNorth =
-                        new LunarLandingConfig(this, "NORTH", currentFigure);
-                neighbors.add(figureNorth);
-            }
-            //South
-            if (canMove(currentFigure, "south").equals("South")) {
-                LunarLandingConfig figureSouth =
-                        new LunarLandingConfig(this, "SOUTH", currentFigure);
-                neighbors.add(figureSouth);
+    /**
+     * The method makes the possible configurations one at a time, trying the 4 directions of
+     * each figure in turn. Moving a different figure or in a different direction always gives
+     * a different configuration, so nothing is made twice.
+     *
+     * @return Iterator<Configuration> the configurations one move after this one
+     */
+    @Override
+    public Iterator<Configuration> neighbors() {
+        return new Iterator<>() {
+            private int figure = -1;
+            private int direction = DIRECTIONS.length;
+            private LunarLandingConfig next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    //move on to the next figure once its 4 directions are tried
+                    if (direction == DIRECTIONS.length) {
+                        if (figure + 1 == cells.length) {
+                            return false;
+                        }
+                        figure++;
+                        direction = 0;
+                    }
+                    int stop = stop(figure, direction++);
+                    if (stop >= 0) {
+                        next = new LunarLandingConfig(LunarLandingConfig.this, figure, stop);
+                    }
+                }
+                return true;
             }
-            //West
-            if (canMove(currentFigure, "west").equals("West")) {
-                LunarLandingConfig figureWest =
-                        new LunarLandingConfig(this, "WEST", currentFigure);
-                neighbors.add(figureWest);
+
+            @Override
+            public Configuration next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LunarLandingConfig move = next;
+                next = null;
+                return move;
             }
-            //East
-            if (canMove(currentFigure, "east").equals("East")) {
-                LunarLandingConfig figureEast =
-                        new LunarLandingConfig(this, "EAST", currentFigure);
-                neighbors.add(figureEast);
+        };
+    }
+
+    /**
+     * Finds where a figure stops moving in a direction: next to the nearest figure that way.
+     * On boards up to 8x8 that figure is the nearest set bit in the figure's row or column byte,
+     * otherwise it's a binary search of the figures in the figure's row or column.
+     *
+     * @param figure the number of the figure being moved
+     * @param direction index into DIRECTIONS
+     * @return int cell the figure stops at, -1 if nothing stops it and it can't move that way
+     */
+    private int stop(int figure, int direction) {
+        int r = cells[figure] / column;
+        int c = cells[figure] % column;
+        if (!bitboard) {
+            indexLines();
+            int blocker;
+            switch (direction) {
+                case 0:
+                    blocker = colIndex.before(c, r);
+                    return blocker < 0 ? -1 : (blocker + 1) * column + c;
+                case 1:
+                    blocker = colIndex.after(c, r);
+                    return blocker < 0 ? -1 : (blocker - 1) * column + c;
+                case 2:
+                    blocker = rowIndex.before(r, c);
+                    return blocker < 0 ? -1 : r * column + blocker + 1;
+                default:
+                    blocker = rowIndex.after(r, c);
+                    return blocker < 0 ? -1 : r * column + blocker - 1;
             }
         }
-        return neighbors;
+        //a bit for each row with a figure in this column, and each column with a figure in this row
+        long inColumn = (colBits >>> (c * 8)) & 0xFF;
+        long inRow = (rowBits >>> (r * 8)) & 0xFF;
+        long blockers;
+        switch (direction) {
+            case 0:
+                blockers = inColumn & ((1L << r) - 1);
+                return blockers == 0 ? -1 : (64 - Long.numberOfLeadingZeros(blockers)) * column + c;
+            case 1:
+                blockers = inColumn & -(2L << r);
+                return blockers == 0 ? -1 : (Long.numberOfTrailingZeros(blockers) - 1) * column + c;
+            case 2:
+                blockers = inRow & ((1L << c) - 1);
+                return blockers == 0 ? -1 : r * column + 64 - Long.numberOfLeadingZeros(blockers);
+            default:
+                blockers = inRow & -(2L << c);
+                return blockers == 0 ? -1 : r * column + Long.numberOfTrailingZeros(blockers) - 1;
+        }
     }
 
-    @Override
-    public void addTotals() {
-        total++;
+    /**
+     * Checks if a figure is on a cell of the board
+     *
+     * @param cell row and column of the cell
+     * @return boolean
+     */
+    private boolean occupied(Coordinates cell) {
+        if (bitboard) {
+            return cell.row() >= 0 && cell.row() < row && cell.col() >= 0 && cell.col() < column &&
+                    (rowBits & (1L << (cell.row() * 8 + cell.col()))) != 0;
+        }
+        indexLines();
+        return rowIndex.contains(cell.row(), cell.col());
     }
 
+    /**
+     * Every move can be walked back, so predecessors can be made, except for a symmetric config
+     * whose equal copies would each have different ones
+     *
+     * @return boolean
+     */
     @Override
-    public void addUnique() {
-        unique++;
+    public boolean hasPredecessors() {
+        return !symmetric;
     }
 
+    /**
+     * The method gets the configurations that reach this one in a single move. A figure could only
+     * have stopped where it is if another figure is right next to it, and it could have started
+     * anywhere on the opposite side up to the next figure or the edge of the board.
+     *
+     * @return Set<Configuration> the configurations one move before this one
+     */
     @Override
-    public int returnTotal() {
-        return total;
+    public Set<Configuration> getPredecessors() {
+        HashSet<Configuration> predecessors = new HashSet<>();
+
+        for (int figure = 0; figure < cells.length; figure++) {
+            Coordinates current = coordinates(cells[figure]);
+            for (Coordinates.Direction direction : Coordinates.CARDINAL_NEIGHBORS) {
+                //nothing to stop the figure in this direction
+                if (!occupied(current.sum(direction.coords))) {
+                    continue;
+                }
+                Coordinates back = direction.coords.multiply(-1);
+                Coordinates start = current.sum(back);
+                while (start.row() >= 0 && start.row() < row && start.col() >= 0 && start.col() < column &&
+                        !occupied(start)) {
+                    predecessors.add(new LunarLandingConfig(this, figure, cell(start)));
+                    start = start.sum(back);
+                }
+            }
+        }
+        return predecessors;
     }
 
+    /**
+     * Checks if the position of every figure fits in a key
+     *
+     * @return boolean
+     */
     @Override
-    public int returnUnique() {
-        return unique;
+    public boolean hasKey() {
+        return positionBits * figureOrder.length <= 63;
     }
 
     /**
-     * The method checks if there is no figure in between the figure being moved and the figure its being moved to
+     * Packs the position of the explorer, then the positions of the robots smallest first, into a long.
+     * Robots that swap places give the same key, like they do for equals.
      *
-     * @param a the figure being moved
-     * @param b destination figure
-     * @return boolean if there is something in between the 2 figures
+     * @return long key of the figure positions
      */
-    private boolean nothingBetween(Coordinates a, Coordinates b) {
-        for (String key : figures.keySet()) {
-            Coordinates current = figures.get(key);
-            if ((a.row() == b.row() && current.row() == a.row() &&
-                    ((current.col() < b.col() && a.col() < current.col()) ||
-                            (current.col() < a.col() && b.col() < current.col()))
-
-            ) || (a.col() == b.col() && current.col() == a.col() &&
-                    ((current.row() < b.row() && a.row() < current.row()) ||
-                            (current.row() < a.row() && b.row() < current.row())))) {
-                return false;
-            }
+    @Override
+    public long key() {
+        long key = 0;
+        if (explorer >= 0) {
+            key = cells[explorer];
         }
-        return true;
+        for (int cell : robotCells()) {
+            key = (key << positionBits) | cell;
+        }
+        return key;
     }
 
     /**
-     * The method checks if a figure can be moved in a direction. Allows a figure to be moved in that direction if
-     * another figure is in that direction
+     * Unpacks the position of each figure from a key, giving the robots their cells in order of their keys
      *
-     * @param currentFigure the figure being moved
-     * @param direction destination figure
-     * @return boolean if there is something in between the 2 figures
+     * @param key key made by key()
+     * @return Configuration with the figures where the key has them
      */
-    public String canMove(String currentFigure, String direction){
-        //North
-        if (direction.equals("north")) {
-            for (String key : figures.keySet()) {
-                if (figures.get(key).col() == figures.get(currentFigure).col() &&
-                        figures.get(key).row() < figures.get(currentFigure).row() &&
-                        nothingBetween(figures.get(currentFigure), figures.get(key))) {
-                    return "North";
-                }
+    @Override
+    public Configuration fromKey(long key) {
+        int[] placed = new int[cells.length];
+        long mask = (1L << positionBits) - 1;
+        //the robots' cells in order, the explorer's is unpacked last
+        for (int figure = cells.length - 1; figure >= 0; figure--) {
+            if (figure != explorer) {
+                placed[figure] = (int) (key & mask);
+                key >>>= positionBits;
             }
         }
-        //South
-        if (direction.equals("south")) {
-            for (String key : figures.keySet()) {
-                if (figures.get(key).col() == figures.get(currentFigure).col() &&
-                        figures.get(key).row() > figures.get(currentFigure).row() &&
-                        nothingBetween(figures.get(currentFigure), figures.get(key))) {
-                    return "South";
-                }
-            }
+        if (explorer >= 0) {
+            placed[explorer] = (int) (key & mask);
         }
-        //West
-        if (direction.equals("west")) {
-            for (String key : figures.keySet()) {
-                if (figures.get(key).row() == figures.get(currentFigure).row() &&
-                        figures.get(key).col() < figures.get(currentFigure).col() &&
-                        nothingBetween(figures.get(currentFigure), figures.get(key))) {
-                    return "West";
+        return new LunarLandingConfig(this, placed, zobrist(placed));
+    }
+
+    /**
+     * Returns the cells the robots are on, as row * column + col, smallest first. Every robot moves the
+     * same way and only the explorer has to reach the lunar lander, so which robot is in a cell
+     * doesn't change what can happen next.
+     *
+     * @return int[] of cells
+     */
+    private int[] robotCells() {
+        if (robotCells == null) {
+            int[] robots = new int[cells.length - (explorer >= 0 ? 1 : 0)];
+            int i = 0;
+            for (int figure = 0; figure < cells.length; figure++) {
+                if (figure != explorer) {
+                    robots[i++] = cells[figure];
                 }
             }
+            Arrays.sort(robots);
+            robotCells = robots;
         }
-        //East
-        if (direction.equals("east")) {
-            for (String key : figures.keySet()) {
-                if (figures.get(key).row() == figures.get(currentFigure).row() &&
-                        figures.get(key).col() > figures.get(currentFigure).col() &&
-                        nothingBetween(figures.get(currentFigure), figures.get(key))) {
-                    return "East";
+        return robotCells;
+    }
+
+    /**
+     * Returns the canonical form of the position, the same for every shifted, turned or mirrored copy
+     *
+     * @return int[] made by LunarLandingSymmetry
+     */
+    private int[] shape() {
+        if (shape == null) {
+            List<Coordinates> robots = new ArrayList<>();
+            for (int figure = 0; figure < cells.length; figure++) {
+                if (figure != explorer) {
+                    robots.add(coordinates(cells[figure]));
                 }
             }
+            shape = LunarLandingSymmetry.canonical(lunarLanderCoordinates, coordinates(explorerCell()), robots);
         }
-        return "Can not move";
+        return shape;
+    }
+
+    /**
+     * The method checks if a figure can be moved in a direction. Allows a figure to be moved in that direction if
+     * another figure is in that direction
+     *
+     * @param currentFigure the figure being moved
+     * @param direction destination figure
+     * @return boolean if there is something in between the 2 figures
+     */
+    public String canMove(String currentFigure, String direction){
+        int move = Arrays.asList(DIRECTIONS).indexOf(direction);
+        int figure = figure(currentFigure);
+        if (move < 0 || figure < 0 || stop(figure, move) < 0) {
+            return "Can not move";
+        }
+        //the direction with a capital, as in "North"
+        return Character.toUpperCase(direction.charAt(0)) + direction.substring(1);
     }
 
     public String find(Coordinates coordinates){
-        for (String key : figures.keySet()) {
-            if (figures.get(key).equals(coordinates)) {
-                return key;
+        if (coordinates.row() < 0 || coordinates.row() >= row || coordinates.col() < 0 || coordinates.col() >= column) {
+            return null;
+        }
+        int cell = cell(coordinates);
+        for (int figure = 0; figure < cells.length; figure++) {
+            if (cells[figure] == cell) {
+                return figureOrder[figure];
             }
         }
         //assumes we can't find key
@@ -393,12 +705,28 @@ public class LunarLandingConfig implements Configuration {
     }
 
     /**
-     * Returns a Hashmap of the figures in the lunarlander configuration
+     * Returns a Hashmap of the figures in the lunarlander configuration, made from the cells
+     * each time, so changing it doesn't change the config
      */
     public HashMap<String, Coordinates> getFigures() {
+        HashMap<String, Coordinates> figures = new HashMap<>();
+        for (int figure = 0; figure < cells.length; figure++) {
+            figures.put(figureOrder[figure], coordinates(cells[figure]));
+        }
         return figures;
     }
 
+    /**
+     * Returns the Coordinates of a figure
+     *
+     * @param figure the figure's letter
+     * @return Coordinates, null if there is no such figure
+     */
+    public Coordinates getFigure(String figure) {
+        int number = figure(figure);
+        return number < 0 ? null : coordinates(cells[number]);
+    }
+
     /**
      * Returns the string representation of the puzzle
      */
@@ -419,26 +747,21 @@ public class LunarLandingConfig implements Configuration {
         }
         result.append("\n");
 
-        boolean isFigureOnGoal = false;
+        String[] letters = letters();
 
         //prints the body of the grid
         for (int r = 0; r < row; r++) {
             result.append(r + " |");
             for (int c = 0; c < column; c++) {
+                String figure = letters[r * column + c];
                 if (r == lunarLanderCoordinates.row() && c == lunarLanderCoordinates.col()) {
-                    Set<String> keys = figures.keySet();
-                    for (String key : keys) {
-                        if (figures.get(key).equals(lunarLanderCoordinates)) {
-                            result.append(" !").append(key);
-                            isFigureOnGoal = true;
-                        }
-                    }
-                    if (!isFigureOnGoal) {
+                    if (figure != null) {
+                        result.append(" !").append(figure);
+                    } else {
                         result.append("  !");
-                        isFigureOnGoal = false;
                     }
                 } else {
-                    result.append("  ").append(board.get(r, c));
+                    result.append("  ").append(figure == null ? "_" : figure);
                 }
             }
             result.append("\n");
@@ -447,20 +770,90 @@ public class LunarLandingConfig implements Configuration {
         return result.toString();
     }
 
+    /**
+     * Returns true, every config has a board
+     * @return boolean
+     */
+    @Override
+    public boolean hasBoard() {
+        return true;
+    }
+
+    /**
+     * Returns each cell as toString shows it: the figure's letter, _ if empty, and the lander
+     * as ! followed by the letter of a figure on it
+     * @return cells by row and column
+     */
+    @Override
+    public String[][] getBoard() {
+        String[] letters = letters();
+        String[][] board = new String[row][column];
+        for (int r = 0; r < row; r++) {
+            for (int c = 0; c < column; c++) {
+                String figure = letters[r * column + c];
+                if (r == lunarLanderCoordinates.row() && c == lunarLanderCoordinates.col()) {
+                    board[r][c] = figure == null ? "!" : "!" + figure;
+                } else {
+                    board[r][c] = figure == null ? "_" : figure;
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Returns the letter on each cell, filled from the last figure so the first one on a cell
+     * wins as in find
+     *
+     * @return letters by cell, null for an empty cell
+     */
+    private String[] letters() {
+        String[] letters = new String[row * column];
+        for (int figure = cells.length - 1; figure >= 0; figure--) {
+            if (cells[figure] >= 0) {
+                letters[cells[figure]] = figureOrder[figure];
+            }
+        }
+        return letters;
+    }
+
+    /**
+     * Two configurations are equal if the explorer is in the same place and the robots are on
+     * the same cells, whichever robot is on which cell. A board with k robots then has up to
+     * k! fewer configurations to search. Symmetric configurations are equal if their positions
+     * are copies of each other, see withSymmetry.
+     *
+     * @param o the other configuration
+     * @return boolean if they are the same puzzle state
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         LunarLandingConfig that = (LunarLandingConfig) o;
+        if (symmetric || that.symmetric) {
+            return symmetric == that.symmetric && Arrays.equals(shape(), that.shape());
+        }
         return row == that.row && column == that.column &&
-                numOfConfigs == that.numOfConfigs && Objects.equals(board, that.board) &&
+                zobrist == that.zobrist &&
+                numOfConfigs == that.numOfConfigs &&
                 Objects.equals(lunarLanderCoordinates, that.lunarLanderCoordinates) &&
-                Objects.equals(figures, that.figures);
+                explorerCell() == that.explorerCell() &&
+                Arrays.equals(robotCells(), that.robotCells());
     }
 
+    /**
+     * The hash of a symmetric configuration is the hash of its canonical form, otherwise it's the
+     * Zobrist hash of the figures, which each move updates instead of hashing every figure again
+     *
+     * @return int hash code
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(board, row, column, lunarLanderCoordinates, numOfConfigs, figures);
+        if (symmetric) {
+            return Arrays.hashCode(shape());
+        }
+        return Long.hashCode(zobrist);
     }
 
 }
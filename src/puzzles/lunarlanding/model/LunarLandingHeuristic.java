@@ -0,0 +1,37 @@
+package puzzles.lunarlanding.model;
+
+import solver.Configuration;
+import solver.Heuristic;
+import util.Coordinates;
+
+/**
+ * Estimates the moves left in a lunar landing puzzle from where the explorer is
+ * compared to the lunar lander. A move only changes the row or the column of a
+ * single figure, so an explorer off the lander needs at least one more move, and
+ * one not lined up with the lander in a row or column needs at least two.
+ *
+ * @author Lucie Lim
+ * November 2021
+ */
+public class LunarLandingHeuristic implements Heuristic<Configuration> {
+
+    /**
+     * Returns the fewest moves the explorer needs to reach the lander
+     *
+     * @param config lunar landing config
+     * @return 0, 1 or 2
+     */
+    @Override
+    public int estimate(Configuration config) {
+        LunarLandingConfig lunar = (LunarLandingConfig) config;
+        Coordinates explorer = lunar.getFigure("E");
+        Coordinates lander = lunar.getLunarLanderCoordinates();
+        if (explorer.equals(lander)) {
+            return 0;
+        }
+        if (explorer.row() == lander.row() || explorer.col() == lander.col()) {
+            return 1;
+        }
+        return 2;
+    }
+}
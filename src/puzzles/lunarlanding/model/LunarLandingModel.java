@@ -1,9 +1,16 @@
 package puzzles.lunarlanding.model;
 
 import solver.Configuration;
+import solver.DistanceTable;
+import solver.PathCache;
+import solver.SolutionStore;
+import solver.SolveResult;
 import solver.Solver;
+import solver.SolverOptions;
 import util.Coordinates;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -15,11 +22,20 @@ import java.util.List;
  */
 public class LunarLandingModel {
 
+    //limits on the search behind a hint, so the board doesn't freeze on a hard puzzle
+    private static final long HINT_STATES = 1_000_000;
+    private static final Duration HINT_TIME = Duration.ofSeconds(5);
+
     private LunarLandingConfig currentConfig;
+    //the board as the file has it, solutions from here are kept in the solution store
+    private LunarLandingConfig startConfig;
     private String filename;
     private Solver solver;
     private String figure;
 
+    //distance to the solution from every board reachable in this puzzle, null until precompute is called
+    private DistanceTable distances;
+
     private List< LunarObserver< LunarLandingModel, Object > > observers;
 
     /*
@@ -43,6 +59,7 @@ public class LunarLandingModel {
         currentConfig = new LunarLandingConfig(filename);
         solver = new Solver();
         figure = null;
+        loadSolution();
     }
 
     /**
@@ -54,6 +71,8 @@ public class LunarLandingModel {
         this.currentConfig = new LunarLandingConfig(file);
         if (!currentConfig.getExceptionCaught()) {
             this.filename = file;
+            this.distances = null;
+            loadSolution();
             show();
             announce("File loaded");
         }
@@ -64,6 +83,9 @@ public class LunarLandingModel {
      */
     public void reload() {
         this.currentConfig = new LunarLandingConfig(this.filename);
+        if (!currentConfig.getExceptionCaught()) {
+            this.currentConfig = currentConfig.withSymmetry(true);
+        }
         System.out.println(currentConfig);
         announce("File loaded");
     }
@@ -108,7 +130,7 @@ public class LunarLandingModel {
                     case "north":
                         System.out.println(currentConfig);
                         if (this.currentConfig.canMove(figure, direction).equals("North")) {
-                            currentConfig.setFigure(figure, this.currentConfig.MoveNorth(figure));
+                            currentConfig = new LunarLandingConfig(currentConfig, "NORTH", figure);
                             announce("");
                             show();
                             if (this.currentConfig.isSolution()) {
@@ -120,7 +142,7 @@ public class LunarLandingModel {
                         break;
                     case "south":
                         if (this.currentConfig.canMove(figure, direction).equals("South")) {
-                            currentConfig.setFigure(figure, this.currentConfig.MoveSouth(figure));
+                            currentConfig = new LunarLandingConfig(currentConfig, "SOUTH", figure);
                             announce("");
                             show();
                             if (this.currentConfig.isSolution()) {
@@ -132,7 +154,7 @@ public class LunarLandingModel {
                         break;
                     case "east":
                         if (this.currentConfig.canMove(figure, direction).equals("East")) {
-                            currentConfig.setFigure(figure, this.currentConfig.MoveEast(figure));
+                            currentConfig = new LunarLandingConfig(currentConfig, "EAST", figure);
                             announce("");
                             show();
                             if (this.currentConfig.isSolution()) {
@@ -144,7 +166,7 @@ public class LunarLandingModel {
                         break;
                     case "west":
                         if (this.currentConfig.canMove(figure, direction).equals("West")) {
-                            currentConfig.setFigure(figure, this.currentConfig.MoveWest(figure));
+                            currentConfig = new LunarLandingConfig(currentConfig, "WEST", figure);
                             announce("");
                             show();
                             if (this.currentConfig.isSolution()) {
@@ -170,15 +192,33 @@ public class LunarLandingModel {
      * Gives the user a hint, sets the current configuration to one of the configs in the solution path
      * of the puzzle.
      *
-     * Will tell if a board is unsolvable or is a board is already solved.
+     * Will tell if a board is unsolvable or is a board is already solved, or if no hint was found in time.
      */
     public void hint () {
-        List<Configuration> solution = Solver.solve(currentConfig);
-        if (isSolvable() == false) {
+        List<Configuration> solution;
+        SolveResult.Status status = SolveResult.Status.SOLVED;
+        if (distances != null && distances.contains(currentConfig)) {
+            //the next board is a lookup, only the first step of the path is needed
+            Configuration next = distances.hint(currentConfig);
+            solution = next == null ? List.of(currentConfig) : List.of(currentConfig, next);
+            if (!distances.isSolvable(currentConfig)) {
+                status = SolveResult.Status.UNSOLVABLE;
+            }
+        } else {
+            solution = PathCache.shared().get(currentConfig);
+        }
+        if (solution == null) {
+            SolveResult result = solve();
+            solution = result.getPath();
+            status = result.getStatus();
+        }
+        if (status == SolveResult.Status.UNSOLVABLE) {
             announce("Unsolvable board");
+        } else if (status != SolveResult.Status.SOLVED) {
+            announce("No hint found in time");
         } else {
             if (solution.size() > 1) {
-                currentConfig = (LunarLandingConfig) solution.remove(1);
+                currentConfig = (LunarLandingConfig) solution.get(1);
                 show();
                 announce("");
                 if (currentConfig.isSolution()) {
@@ -212,16 +252,76 @@ public class LunarLandingModel {
     }
 
     /**
-     * checks if the current configuration is solvable
+     * checks if the current configuration is solvable, a board the search runs out of time on counts as solvable
      *
      * @return boolean
      */
     public boolean isSolvable() {
-        List<Configuration> solution = Solver.solve(currentConfig);
-        if (solution.size() == 0) {
-            return false;
+        if (distances != null && distances.contains(currentConfig)) {
+            return distances.isSolvable(currentConfig);
+        }
+        return PathCache.shared().get(currentConfig) != null || solve().getStatus() != SolveResult.Status.UNSOLVABLE;
+    }
+
+    /**
+     * Returns the fewest moves left to solve the current configuration
+     *
+     * @return int moves, -1 if it's unsolvable or the search runs out of time
+     */
+    public int movesRemaining() {
+        if (distances != null && distances.contains(currentConfig)) {
+            return distances.distance(currentConfig);
+        }
+        List<Configuration> solution = PathCache.shared().get(currentConfig);
+        if (solution == null) {
+            solution = solve().getPath();
+        }
+        return solution.size() - 1;
+    }
+
+    /**
+     * Works out the distance to the solution from every board reachable from the current one,
+     * so hints, solvability and moves remaining are lookups instead of searches.
+     * The table walks predecessors, so it's built from a config that isn't symmetric
+     */
+    public void precompute() {
+        distances = DistanceTable.build(currentConfig.withSymmetry(false));
+    }
+
+    /**
+     * Solves the current configuration within the hint limits, storing the path in the shared cache
+     * so the hints that follow it don't search again, and in the solution store if it starts from the file's board
+     *
+     * @return SolveResult
+     */
+    private SolveResult solve() {
+        SolveResult result = Solver.solve(currentConfig,
+                new SolverOptions().maxStates(HINT_STATES).timeout(HINT_TIME));
+        if (result.isSolved()) {
+            PathCache.shared().put(result.getPath());
+        }
+        if (startConfig != null && currentConfig.equals(startConfig)) {
+            SolutionStore.shared().put(Path.of(filename), startConfig, result);
+        }
+        return result;
+    }
+
+    /**
+     * Makes the board just read symmetric, so hints share searches and cached paths with turned,
+     * mirrored and shifted copies of a board, then puts the stored solution of the puzzle file,
+     * if there is one, in the shared cache, so the first hints of a puzzle solved before don't search
+     */
+    private void loadSolution() {
+        startConfig = null;
+        if (currentConfig.getExceptionCaught()) {
+            return;
+        }
+        currentConfig = currentConfig.withSymmetry(true);
+        startConfig = currentConfig;
+        SolveResult stored = SolutionStore.shared().get(Path.of(filename), startConfig);
+        if (stored != null && stored.isSolved()) {
+            PathCache.shared().put(stored.getPath());
         }
-        return true;
     }
 
     /**
@@ -0,0 +1,81 @@
+package puzzles.lunarlanding.model;
+
+import util.Coordinates;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Puts a lunar landing position into a canonical form that is the same for every copy of it
+ * that is shifted, turned or mirrored. A figure only moves until it hits another figure, and
+ * can't move at all with nothing in the way, so the edges of the board never matter and all
+ * these copies have the same moves and the same solution length.
+ *
+ * @author Lucie Lim
+ * November 2021
+ */
+final class LunarLandingSymmetry {
+
+    //the 8 ways to turn or mirror a square: each row and column taken from +-row or +-column
+    private static final int[][] TRANSFORMS = {
+            {1, 0, 0, 1}, {0, 1, -1, 0}, {-1, 0, 0, -1}, {0, -1, 1, 0},
+            {1, 0, 0, -1}, {0, -1, -1, 0}, {-1, 0, 0, 1}, {0, 1, 1, 0}
+    };
+
+    private LunarLandingSymmetry() {
+    }
+
+    /**
+     * Returns the canonical form of a position: the lunar lander, the explorer, then the robots in order,
+     * as row and column pairs, shifted so the smallest row and column are 0, and turned or mirrored
+     * whichever way makes the list come first. The last number is 1 if there is an explorer.
+     *
+     * @param lander where the lunar lander is
+     * @param explorer where the explorer is, null if there is none
+     * @param robots where the robots are
+     * @return int[] of rows and columns
+     */
+    static int[] canonical(Coordinates lander, Coordinates explorer, Collection<Coordinates> robots) {
+        int points = robots.size() + (explorer == null ? 1 : 2);
+        int[] rows = new int[points];
+        int[] cols = new int[points];
+        int[] best = null;
+        int[] form = new int[2 * points + 1];
+        form[2 * points] = explorer == null ? 0 : 1;
+        long[] sorted = new long[robots.size()];
+        for (int[] t : TRANSFORMS) {
+            int i = 0;
+            rows[i] = t[0] * lander.row() + t[1] * lander.col();
+            cols[i++] = t[2] * lander.row() + t[3] * lander.col();
+            if (explorer != null) {
+                rows[i] = t[0] * explorer.row() + t[1] * explorer.col();
+                cols[i++] = t[2] * explorer.row() + t[3] * explorer.col();
+            }
+            for (Coordinates robot : robots) {
+                rows[i] = t[0] * robot.row() + t[1] * robot.col();
+                cols[i++] = t[2] * robot.row() + t[3] * robot.col();
+            }
+            int minRow = Arrays.stream(rows).min().getAsInt();
+            int minCol = Arrays.stream(cols).min().getAsInt();
+
+            int fixed = explorer == null ? 1 : 2;
+            for (i = 0; i < fixed; i++) {
+                form[2 * i] = rows[i] - minRow;
+                form[2 * i + 1] = cols[i] - minCol;
+            }
+            //the robots are interchangeable, so they go in order of row then column
+            for (int r = 0; r < sorted.length; r++) {
+                sorted[r] = ((long) (rows[fixed + r] - minRow) << 32) | (cols[fixed + r] - minCol);
+            }
+            Arrays.sort(sorted);
+            for (int r = 0; r < sorted.length; r++) {
+                form[2 * (fixed + r)] = (int) (sorted[r] >>> 32);
+                form[2 * (fixed + r) + 1] = (int) sorted[r];
+            }
+            if (best == null || Arrays.compare(form, best) < 0) {
+                best = form.clone();
+            }
+        }
+        return best;
+    }
+}
@@ -1,10 +1,17 @@
 package puzzles.tipover;
 
 import puzzles.tipover.model.TipOverConfig;
+import puzzles.tipover.model.TipOverHeuristic;
+import solver.AStarSolver;
+import solver.SolutionStore;
+import solver.SolveResult;
 import solver.Solver;
+import solver.SolverOptions;
 import solver.Configuration;
 
 import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 
 
@@ -15,6 +22,9 @@ import java.util.List;
  */
 public class TipOver {
 
+    // how long the A* search run for its expanded count may take
+    private static final Duration A_STAR_TIMEOUT = Duration.ofSeconds(10);
+
     /*
      * code to read the file name from the command line and
      * run the solver on the puzzle
@@ -22,10 +32,26 @@ public class TipOver {
 
     public static void main( String[] args ) throws FileNotFoundException {
         TipOverConfig config = new TipOverConfig(args[0]);
-        List<Configuration> path = Solver.solve(config);
+        // a puzzle solved before is read from the solution store instead of solved again
+        Path puzzle = Path.of(args[0]);
+        SolveResult result = SolutionStore.shared().get(puzzle, config);
+        boolean solved = result == null;
+        if (solved) {
+            result = Solver.solve(config);
+            SolutionStore.shared().put(puzzle, config, result);
+        }
+        List<Configuration> path = result.getPath();
         int counter = 0;
-        System.out.println("Total Configs: " + config.returnTotal());
-        System.out.println("Unique Configs: " + config.returnUnique());
+        System.out.println(result.getMetrics());
+        if (solved) {
+            SolveResult aStar = new AStarSolver(new TipOverHeuristic(config))
+                    .solve(config, new SolverOptions().timeout(A_STAR_TIMEOUT));
+            System.out.println("Expanded Configs (A*): " + aStar.getMetrics().getExpanded()
+                    + (aStar.getStatus() == SolveResult.Status.BUDGET_EXCEEDED ? ", stopped at the time limit" : ""));
+        }
+        else {
+            System.out.println("Expanded Configs (A*): not run, the solution was cached");
+        }
         if (path.size() == 0) {
             System.out.println("No Solution");
         }
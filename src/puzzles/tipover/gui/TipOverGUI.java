@@ -85,7 +85,7 @@ public class TipOverGUI extends Application
 
         // border pane to insert grid pane and text labels
         BorderPane borderPane = new BorderPane();
-        top = new Label("Loaded Game, Standing on a " + model.config.grid[model.config.coords.row()][model.config.coords.col()]);
+        top = new Label("Loaded Game, Standing on a " + model.config.getHeight());
         borderPane.setTop(top);
 
         borderPane.setPrefSize(800, 400);
@@ -137,7 +137,7 @@ public class TipOverGUI extends Application
                     button.setGraphic(new ImageView(button.image));
                 }
                 else {
-                    button = new NumberedButtons(Integer.parseInt(model.config.grid[row][col]));
+                    button = new NumberedButtons(model.config.getHeight(row, col));
                     button.setGraphic(new ImageView(button.image));
                 }
                 gridPane.add(button, col, row);
@@ -216,7 +216,7 @@ public class TipOverGUI extends Application
                     button.setGraphic(new ImageView(button.image));
                 }
                 else {
-                    button = new NumberedButtons(Integer.parseInt(model.config.grid[row][col]));
+                    button = new NumberedButtons(model.config.getHeight(row, col));
                     button.setGraphic(new ImageView(button.image));
                 }
                 gridPane.add(button, col, row);
@@ -227,7 +227,7 @@ public class TipOverGUI extends Application
             top.setText("YOU WON");
         }
         else {
-            top.setText("Standing on a " + model.config.grid[model.config.coords.row()][model.config.coords.col()]);
+            top.setText("Standing on a " + model.config.getHeight());
         }
         if (model.isTipped()) {
             top.setText("Tipped Over a Tower");
@@ -235,6 +235,9 @@ public class TipOverGUI extends Application
         if (!model.isSolvable()) {
             top.setText("Unsolvable");
         }
+        if (o != null) {
+            top.setText(o.toString());
+        }
     }
 
     /**
@@ -2,6 +2,7 @@ package puzzles.tipover.model;
 
 import solver.*;
 import util.Coordinates;
+import util.ZobristTable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -14,8 +15,15 @@ import java.util.*;
 
 public class TipOverConfig implements Configuration {
 
+    // height of each tile, row * length + col, never changed once the config is made, so a config
+    // where no tower tipped shares it with the config it came from
+    private byte[] heights;
+    // columns of the grid, so grids with as many tiles but another shape aren't equal
+    private final int columns;
+    // Zobrist hash of the heights and the tipper, which a move changes by the keys of the tiles it changes
+    private long zobrist;
+
     // Dimensions of the grid
-    public String[][] grid;
     public static int width;
     public static int length;
 
@@ -27,9 +35,18 @@ public class TipOverConfig implements Configuration {
     public Coordinates coords;
     public static Coordinates goal;
 
-    // number of configs ran
-    private int total = 1;
-    private int unique = 1;
+    // heights of the towers when the grid was loaded
+    private static byte[] towers;
+
+    // keys of each height on each tile, the last value being the tipper
+    private static ZobristTable zobristTable;
+
+    // tiles a tower can be tipped from or onto, and if they fit in a key with the tipper
+    private static int[] changeable;
+    private static boolean keyFits;
+
+    // directions the tipper is moved in, as the neighbor constructor takes them
+    private static final String[] DIRECTIONS = {"North", "East", "South", "West"};
 
     /**
      * Creates initial TipOverConfig
@@ -45,7 +62,7 @@ public class TipOverConfig implements Configuration {
             width = Integer.parseInt(fields[0]);
             length = Integer.parseInt(fields[1]);
 
-            this.grid = new String[width][length];
+            this.heights = new byte[width * length];
             this.coords = new Coordinates(fields[2], fields[3]);
             goal = new Coordinates(fields[4], fields[5]);
 
@@ -53,11 +70,98 @@ public class TipOverConfig implements Configuration {
                 line = in.nextLine();
                 fields = line.split("\\s+");
                 for (int c = 0; c < length; c++) {
-                    this.grid[r][c] = fields[c];
+                    this.heights[r * length + c] = Byte.parseByte(fields[c]);
+                }
+            }
+            this.columns = length;
+        }
+        towers = this.heights.clone();
+        findChangeable();
+        int tallest = 0;
+        for (byte tower : towers) {
+            tallest = Math.max(tallest, tower);
+        }
+        // towers only ever get shorter, so the heights of the grid as loaded are all there can be
+        zobristTable = new ZobristTable(width * length, tallest + 2);
+        this.height = at(coords.row(), coords.col());
+        this.zobrist = zobrist();
+    }
+
+    /**
+     * Finds the tiles that can change when towers are tipped. The rest of the grid is the
+     * same in every config, so only these tiles and the tipper need to be in a key.
+     */
+    private static void findChangeable() {
+        boolean[] changes = new boolean[width * length];
+        for (int r = 0; r < width; r++) {
+            for (int c = 0; c < length; c++) {
+                int tower = towers[r * length + c];
+                if (tower < 2) {
+                    continue;
+                }
+                changes[r * length + c] = true;
+                for (Coordinates.Direction direction : Coordinates.CARDINAL_NEIGHBORS) {
+                    Coordinates end = new Coordinates(r, c).sum(direction.coords.multiply(tower));
+                    if (end.row() >= 0 && end.row() < width && end.col() >= 0 && end.col() < length) {
+                        for (int i = 1; i <= tower; i++) {
+                            Coordinates tile = new Coordinates(r, c).sum(direction.coords.multiply(i));
+                            // a 1 stays a 1 when a tower lands on it
+                            if (towers[tile.row() * length + tile.col()] != 1) {
+                                changes[tile.row() * length + tile.col()] = true;
+                            }
+                        }
+                    }
                 }
             }
         }
-        this.height = Integer.parseInt(this.grid[coords.row()][coords.col()]);
+
+        int count = 0;
+        for (boolean change : changes) {
+            if (change) {
+                count++;
+            }
+        }
+        changeable = new int[count];
+        count = 0;
+        for (int tile = 0; tile < changes.length; tile++) {
+            if (changes[tile]) {
+                changeable[count++] = tile;
+            }
+        }
+
+        // a changeable tile is 0 or 1, or its tower if there is one, and the tipper can be on any tile
+        long limit = Long.MAX_VALUE / (width * length);
+        long keys = 1;
+        keyFits = true;
+        for (int i = 0; i < changeable.length && keyFits; i++) {
+            int values = radix(changeable[i]);
+            if (keys > limit / values) {
+                keyFits = false;
+            }
+            keys *= values;
+        }
+    }
+
+    /**
+     * Number of values a changeable tile can have
+     * @param tile index of the tile, row * length + col
+     * @return 3 for a tower, 2 for an empty tile
+     */
+    private static int radix(int tile) {
+        return towers[tile] == 0 ? 2 : 3;
+    }
+
+    /**
+     * Creates a config with the tipper standing on the grid at coords
+     * @param heights height of each tile, not copied
+     * @param coords coords of the tipper
+     */
+    private TipOverConfig(byte[] heights, Coordinates coords) {
+        this.heights = heights;
+        this.columns = length;
+        this.coords = coords;
+        this.height = at(coords.row(), coords.col());
+        this.zobrist = zobrist();
     }
 
     /**
@@ -66,13 +170,11 @@ public class TipOverConfig implements Configuration {
      * @param direction decides tiles next to current
      */
     public TipOverConfig(TipOverConfig other, String direction) {
-        // copies data
+        // shares the grid until a tower tips
         this.coords = other.coords;
-        this.grid = new String[width][length];
-
-        for (int r = 0; r < width; r++) {
-            System.arraycopy(other.grid[r], 0, this.grid[r], 0, length);
-        }
+        this.heights = other.heights;
+        this.columns = other.columns;
+        this.zobrist = other.zobrist;
 
         // Depending on direction, will create a new config with new coordinates
         switch (direction) {
@@ -80,12 +182,13 @@ public class TipOverConfig implements Configuration {
                 // checks if coords will be in bounds
                 if(other.coords.row() - other.height >= 0) {
                     if (other.height > 1) {
-                        if (this.grid[other.coords.row()-1][other.coords.col()].equals("0")
-                                && this.grid[other.coords.row() - other.getHeight()][other.coords.col()].equals("0")) {
+                        if (at(other.coords.row()-1, other.coords.col()) == 0
+                                && at(other.coords.row() - other.getHeight(), other.coords.col()) == 0) {
                             // decides if tower will be tipped over
+                            this.heights = other.heights.clone();
                             for (int i = 1; i < other.height + 1; i++) {
-                                this.grid[other.coords.row()][other.coords.col()] = "0";
-                                this.grid[other.coords.row()-i][other.coords.col()] = "1";
+                                set(other.coords.row(), other.coords.col(), 0);
+                                set(other.coords.row()-i, other.coords.col(), 1);
                             }
                             this.coords = new Coordinates(other.coords.row() - 1, other.coords.col());
                             this.tipped = true;
@@ -107,11 +210,12 @@ public class TipOverConfig implements Configuration {
             case "East" -> {
                 if(other.coords.col() + other.height < length) {
                     if (other.height > 1) {
-                        if (this.grid[other.coords.row()][other.coords.col() + 1].equals("0")
-                                && this.grid[other.coords.row()][other.coords.col() + other.getHeight()].equals("0")) {
+                        if (at(other.coords.row(), other.coords.col() + 1) == 0
+                                && at(other.coords.row(), other.coords.col() + other.getHeight()) == 0) {
+                            this.heights = other.heights.clone();
                             for (int i = 1; i < other.height + 1; i++) {
-                                this.grid[other.coords.row()][other.coords.col()] = "0";
-                                this.grid[other.coords.row()][other.coords.col() + i] = "1";
+                                set(other.coords.row(), other.coords.col(), 0);
+                                set(other.coords.row(), other.coords.col() + i, 1);
                             }
                             this.coords = new Coordinates(other.coords.row(), other.coords.col() + 1);
                             this.tipped = true;
@@ -133,11 +237,12 @@ public class TipOverConfig implements Configuration {
             case "South" -> {
                 if(other.coords.row() + other.height < width) {
                     if (other.height > 1) {
-                        if (this.grid[other.coords.row()+1][other.coords.col()].equals("0")
-                                && this.grid[other.coords.row() + other.getHeight()][other.coords.col()].equals("0")) {
+                        if (at(other.coords.row()+1, other.coords.col()) == 0
+                                && at(other.coords.row() + other.getHeight(), other.coords.col()) == 0) {
+                            this.heights = other.heights.clone();
                             for (int i = 1; i < other.height + 1; i++) {
-                                this.grid[other.coords.row()][other.coords.col()] = "0";
-                                this.grid[other.coords.row()+i][other.coords.col()] = "1";
+                                set(other.coords.row(), other.coords.col(), 0);
+                                set(other.coords.row()+i, other.coords.col(), 1);
                             }
                             this.coords = new Coordinates(other.coords.row() + 1, other.coords.col());
                             this.tipped = true;
@@ -159,11 +264,12 @@ public class TipOverConfig implements Configuration {
             case "West" -> {
                 if (other.coords.col() - other.height >= 0) {
                     if (other.height > 1) {
-                        if (this.grid[other.coords.row()][other.coords.col() - 1].equals("0")
-                                && this.grid[other.coords.row()][other.coords.col() - other.getHeight()].equals("0")) {
+                        if (at(other.coords.row(), other.coords.col() - 1) == 0
+                                && at(other.coords.row(), other.coords.col() - other.getHeight()) == 0) {
+                            this.heights = other.heights.clone();
                             for (int i = 1; i < other.height + 1; i++) {
-                                this.grid[other.coords.row()][other.coords.col()] = "0";
-                                this.grid[other.coords.row()][other.coords.col() - i] = "1";
+                                set(other.coords.row(), other.coords.col(), 0);
+                                set(other.coords.row(), other.coords.col() - i, 1);
                             }
                             this.coords = new Coordinates(other.coords.row(), other.coords.col() - 1);
                             this.tipped = true;
@@ -183,7 +289,49 @@ public class TipOverConfig implements Configuration {
                 }
             }
         }
-        this.height = Integer.parseInt(this.grid[coords.row()][coords.col()]);
+        this.height = at(coords.row(), coords.col());
+        this.zobrist ^= tipperKey(other.coords) ^ tipperKey(this.coords);
+    }
+
+    /**
+     * Returns the height of a tile
+     * @param row row of the tile
+     * @param col column of the tile
+     * @return height, 0 for an empty tile
+     */
+    public int getHeight(int row, int col) {
+        return at(row, col);
+    }
+
+    /**
+     * Returns the height of a tile
+     */
+    private byte at(int row, int col) {
+        return this.heights[row * length + col];
+    }
+
+    /**
+     * Sets the height of a tile, only while the config is being made and once it has its own grid
+     */
+    private void set(int row, int col, int height) {
+        int tile = row * length + col;
+        this.zobrist ^= zobristTable.key(tile, this.heights[tile]) ^ zobristTable.key(tile, height);
+        this.heights[tile] = (byte) height;
+    }
+
+    /**
+     * Returns the Zobrist key of the tipper standing on a tile
+     */
+    private static long tipperKey(Coordinates tipper) {
+        return zobristTable.key(tipper.row() * length + tipper.col(), zobristTable.getValues() - 1);
+    }
+
+    /**
+     * Works out the Zobrist hash of the heights and the tipper from scratch
+     * @return long
+     */
+    private long zobrist() {
+        return zobristTable.hash(this.heights) ^ tipperKey(this.coords);
     }
 
     /**
@@ -210,61 +358,196 @@ public class TipOverConfig implements Configuration {
     @Override
     public Set<Configuration> getNeighbors() {
         Set<Configuration> neighbors = new HashSet<>();
+        for (Iterator<Configuration> moves = neighbors(); moves.hasNext(); ) {
+            neighbors.add(moves.next());
+        }
+        return neighbors;
+    }
 
-        TipOverConfig North = new TipOverConfig(this, "North");
-        TipOverConfig East = new TipOverConfig(this, "East");
-        TipOverConfig South = new TipOverConfig(this, "South");
-        TipOverConfig West = new TipOverConfig(this, "West");
+    /**
+     * Makes the neighbors one direction at a time, so a search that stops
+     * at the first one doesn't build the rest
+     * @return Iterator of Configs
+     */
+    @Override
+    public Iterator<Configuration> neighbors() {
+        return new Iterator<>() {
+            private int direction;
+            private TipOverConfig next;
 
-        // If the heights are 0, then it's not a valid config
-        if (North.height != 0) {
-            neighbors.add(North);
-        }
-        if (East.height != 0) {
-            neighbors.add(East);
-        }
-        if (South.height != 0) {
-            neighbors.add(South);
-        }
-        if (West.height != 0) {
-            neighbors.add(West);
-        }
+            @Override
+            public boolean hasNext() {
+                while (next == null && direction < DIRECTIONS.length) {
+                    TipOverConfig move = new TipOverConfig(TipOverConfig.this, DIRECTIONS[direction++]);
+                    // If the height is 0, then it's not a valid config, and if the tipper
+                    // didn't move it's off the edge and the same as this config
+                    if (move.height != 0 && !move.coords.equals(coords)) {
+                        next = move;
+                    }
+                }
+                return next != null;
+            }
 
-        return neighbors;
+            @Override
+            public Configuration next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TipOverConfig move = next;
+                next = null;
+                return move;
+            }
+        };
     }
 
     /**
-     * Adds to total configs ran
+     * Moves can be walked back, so predecessors can be made
+     * @return true
      */
     @Override
-    public void addTotals() {
-        total++;
+    public boolean hasPredecessors() {
+        return true;
+    }
+
+    /**
+     * Gets the configs that reach this config in one move. The tipper either walked
+     * from the next tile over, or tipped the tower it was standing on, which left a 0
+     * behind and a line of 1s ending on the tile after the tipper.
+     * @return Set of Configs
+     */
+    @Override
+    public Set<Configuration> getPredecessors() {
+        Set<Configuration> predecessors = new HashSet<>();
+
+        for (Coordinates.Direction direction : Coordinates.CARDINAL_NEIGHBORS) {
+            Coordinates from = this.coords.sum(direction.coords.multiply(-1));
+            if (from.row() < 0 || from.row() >= width || from.col() < 0 || from.col() >= length) {
+                continue;
+            }
+            List<byte[]> grids = new ArrayList<>();
+
+            // walked over without tipping anything
+            if (at(from.row(), from.col()) != 0) {
+                grids.add(this.heights);
+            }
+            // tipped the tower that used to stand on the tile
+            else {
+                int tower = towers[from.row() * length + from.col()];
+                if (tower > 1 && fallenLine(from, direction, tower)) {
+                    byte[] before = this.heights.clone();
+                    before[from.row() * length + from.col()] = (byte) tower;
+                    standingGrids(before, from, direction, tower, 1, grids);
+                }
+            }
+
+            // only keep the ones that really move to this config
+            String move = direction.name().charAt(0) + direction.name().substring(1).toLowerCase();
+            for (byte[] candidate : grids) {
+                TipOverConfig predecessor = new TipOverConfig(candidate, from);
+                TipOverConfig forward = new TipOverConfig(predecessor, move);
+                if (forward.height != 0 && forward.equals(this) && !predecessor.equals(this)) {
+                    predecessors.add(predecessor);
+                }
+            }
+        }
+        return predecessors;
+    }
+
+    /**
+     * Checks that a tower of the given height tipped from the tile would have landed
+     * inside the grid on tiles that are all 1 now
+     * @param from tile the tower stood on
+     * @param direction direction it fell
+     * @param tower height of the tower
+     * @return true if the fallen tower is there
+     */
+    private boolean fallenLine(Coordinates from, Coordinates.Direction direction, int tower) {
+        for (int i = 1; i <= tower; i++) {
+            Coordinates tile = from.sum(direction.coords.multiply(i));
+            if (tile.row() < 0 || tile.row() >= width || tile.col() < 0 || tile.col() >= length
+                    || at(tile.row(), tile.col()) != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills in every grid the fallen tower could have covered. The first and last tiles
+     * had to be empty for it to tip, the tiles in between could have held anything that
+     * was ever there: nothing, part of another fallen tower, or their original tower.
+     * @param before grid with the tower standing, filled in from tile i onwards
+     * @param from tile the tower stood on
+     * @param direction direction it fell
+     * @param tower height of the tower
+     * @param i tile along the line being filled in
+     * @param grids list the finished grids are added to
+     */
+    private static void standingGrids(byte[] before, Coordinates from, Coordinates.Direction direction,
+                                      int tower, int i, List<byte[]> grids) {
+        if (i > tower) {
+            grids.add(before);
+            return;
+        }
+        Coordinates tile = from.sum(direction.coords.multiply(i));
+        Set<Byte> values = new LinkedHashSet<>();
+        values.add((byte) 0);
+        if (i != 1 && i != tower) {
+            values.add((byte) 1);
+            values.add(towers[tile.row() * length + tile.col()]);
+        }
+        for (byte value : values) {
+            byte[] next = before.clone();
+            next[tile.row() * length + tile.col()] = value;
+            standingGrids(next, from, direction, tower, i + 1, grids);
+        }
     }
 
     /**
-     * Adds to unique configs
+     * Checks if the changeable tiles and the tipper fit in a key
+     * @return true if they fit
      */
     @Override
-    public void addUnique() {
-        unique++;
+    public boolean hasKey() {
+        return keyFits;
     }
 
     /**
-     * Returns total configs
-     * @return total
+     * Packs the changeable tiles, each 0, 1 or still a tower, and the tipper's tile into a long
+     * @return key
      */
     @Override
-    public int returnTotal() {
-        return total;
+    public long key() {
+        long key = 0;
+        for (int tile : changeable) {
+            int value = this.heights[tile];
+            key = key * radix(tile) + Math.min(value, 2);
+        }
+        return key * (width * length) + this.coords.row() * length + this.coords.col();
     }
 
     /**
-     * Returns unique configs
-     * @return unique
+     * Unpacks the changeable tiles and the tipper's tile from a key
+     * @param key key made by key()
+     * @return Configuration with the grid and tipper from the key
      */
     @Override
-    public int returnUnique() {
-        return unique;
+    public Configuration fromKey(long key) {
+        int tiles = width * length;
+        int tipper = (int) (key % tiles);
+        key /= tiles;
+
+        byte[] unpacked = towers.clone();
+        for (int i = changeable.length - 1; i >= 0; i--) {
+            int tile = changeable[i];
+            int radix = radix(tile);
+            int value = (int) (key % radix);
+            key /= radix;
+            if (value < 2) {
+                unpacked[tile] = (byte) value;
+            }
+        }
+        return new TipOverConfig(unpacked, new Coordinates(tipper / length, tipper % length));
     }
 
     /**
@@ -277,14 +560,10 @@ public class TipOverConfig implements Configuration {
         boolean result = false;
         if(o instanceof TipOverConfig) {
             TipOverConfig n = (TipOverConfig) o;
-            for (int r = 0; r < width; r++) {
-                for (int c = 0; c < length; c++) {
-                    if (!this.grid[r][c].equals(n.grid[r][c])) {
-                        return false;
-                    }
-                }
-            }
-            result = this.coords.equals(n.coords);
+            // configs of another puzzle can have a grid of a different size, which Arrays.equals checks,
+            // or of the same size and another shape, which the columns check
+            result = this.zobrist == n.zobrist && this.columns == n.columns && this.coords.equals(n.coords)
+                    && Arrays.equals(this.heights, n.heights);
         }
         return result;
     }
@@ -298,12 +577,44 @@ public class TipOverConfig implements Configuration {
     }
 
     /**
-     * Returns hashCode of coords and grid
+     * Returns hashCode of coords and grid, kept up to date by each move, and the shape of the grid
      * @return int
      */
     @Override
     public int hashCode() {
-        return this.coords.hashCode() + Arrays.deepHashCode(this.grid);
+        return 31 * Long.hashCode(this.zobrist) + this.columns;
+    }
+
+    /**
+     * Returns true, every config has a grid of tiles
+     * @return boolean
+     */
+    @Override
+    public boolean hasBoard() {
+        return true;
+    }
+
+    /**
+     * Returns each tile as toString shows it: its height, _ if empty, after a * where the
+     * tipper is or a ! on the goal
+     * @return tiles by row and column
+     */
+    @Override
+    public String[][] getBoard() {
+        String[][] board = new String[width][length];
+        for(int i = 0; i < width; i++) {
+            for(int j = 0; j < length; j++) {
+                String tile = at(i, j) == 0 ? "_" : String.valueOf(at(i, j));
+                if(this.coords.row() == i && this.coords.col() == j) {
+                    tile = "*" + tile;
+                }
+                else if(goal.row() == i && goal.col() == j) {
+                    tile = "!" + tile;
+                }
+                board[i][j] = tile;
+            }
+        }
+        return board;
     }
 
     /**
@@ -333,11 +644,11 @@ public class TipOverConfig implements Configuration {
                     str.append(" ");
                 }
 
-                if(this.grid[i][j].equals("0")) {
+                if(at(i, j) == 0) {
                     str.append("_ ");
                 }
                 else {
-                    str.append(this.grid[i][j] + " ");
+                    str.append(at(i, j) + " ");
                 }
             }
         }
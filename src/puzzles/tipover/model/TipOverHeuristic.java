@@ -0,0 +1,88 @@
+package puzzles.tipover.model;
+
+import solver.Configuration;
+import solver.Heuristic;
+import util.Coordinates;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Estimates the moves left in a tip over puzzle by pretending every tower has
+ * already been tipped every way it could be. The tipper moves one tile per move,
+ * so the walking distance to the goal over every tile that could ever be stood on
+ * is never more than the real number of moves.
+ * @author Darian Cheung, Team bingbong
+ * November 2021
+ */
+public class TipOverHeuristic implements Heuristic<Configuration> {
+
+    // walking distance from each tile to the goal, -1 if the goal can't be reached
+    private final int[][] distance;
+
+    /**
+     * Creates the heuristic for the puzzle the config was loaded from
+     * @param config any config of the puzzle
+     */
+    public TipOverHeuristic(TipOverConfig config) {
+        int width = TipOverConfig.width;
+        int length = TipOverConfig.length;
+
+        // tiles that are standable now, or after some tower tips onto them
+        boolean[][] standable = new boolean[width][length];
+        for (int r = 0; r < width; r++) {
+            for (int c = 0; c < length; c++) {
+                int height = config.getHeight(r, c);
+                if (height == 0) {
+                    continue;
+                }
+                standable[r][c] = true;
+                for (Coordinates.Direction direction : Coordinates.CARDINAL_NEIGHBORS) {
+                    Coordinates end = new Coordinates(r, c).sum(direction.coords.multiply(height));
+                    if (height > 1 && end.row() >= 0 && end.row() < width && end.col() >= 0 && end.col() < length) {
+                        for (int i = 1; i <= height; i++) {
+                            Coordinates tile = new Coordinates(r, c).sum(direction.coords.multiply(i));
+                            standable[tile.row()][tile.col()] = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        // walks out from the goal over the standable tiles
+        this.distance = new int[width][length];
+        for (int[] row : distance) {
+            Arrays.fill(row, -1);
+        }
+        Queue<Coordinates> queue = new LinkedList<>();
+        Coordinates goal = TipOverConfig.goal;
+        if (standable[goal.row()][goal.col()]) {
+            distance[goal.row()][goal.col()] = 0;
+            queue.add(goal);
+        }
+        while (!queue.isEmpty()) {
+            Coordinates current = queue.remove();
+            for (Coordinates.Direction direction : Coordinates.CARDINAL_NEIGHBORS) {
+                Coordinates next = current.sum(direction.coords);
+                if (next.row() >= 0 && next.row() < width && next.col() >= 0 && next.col() < length
+                        && standable[next.row()][next.col()] && distance[next.row()][next.col()] == -1) {
+                    distance[next.row()][next.col()] = distance[current.row()][current.col()] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the walking distance from the tipper to the goal
+     * @param config tip over config
+     * @return distance, Integer.MAX_VALUE if the goal can't be reached
+     */
+    @Override
+    public int estimate(Configuration config) {
+        Coordinates coords = ((TipOverConfig) config).coords;
+        int moves = distance[coords.row()][coords.col()];
+        return moves == -1 ? Integer.MAX_VALUE : moves;
+    }
+}
@@ -1,9 +1,16 @@
 package puzzles.tipover.model;
 
 import solver.Configuration;
+import solver.DistanceTable;
+import solver.PathCache;
+import solver.SolutionStore;
+import solver.SolveResult;
 import solver.Solver;
+import solver.SolverOptions;
 
 import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -14,6 +21,10 @@ import java.util.List;
  */
 public class TipOverModel{
 
+    // limits on the search behind a hint, so the board doesn't freeze on a hard puzzle
+    private static final long HINT_STATES = 1_000_000;
+    private static final Duration HINT_TIME = Duration.ofSeconds(5);
+
     // information to make the configs
     private String filename;
     private boolean tipped;
@@ -22,6 +33,8 @@ public class TipOverModel{
     private List<Configuration> path;
     private List< TipOverObserver< TipOverModel, Object > > observers;
     private boolean solvable = true;
+    // distance to the goal from every grid reachable in this puzzle, null until precompute is called
+    private DistanceTable distances;
 
     /**
      * Creates Model
@@ -33,7 +46,7 @@ public class TipOverModel{
         this.filename = filename;
         this.config = new TipOverConfig(this.filename);
         this.startConfig = new TipOverConfig(this.filename);
-        this.path = Solver.solve(this.config);
+        this.loadSolution();
     }
 
     /**
@@ -78,6 +91,8 @@ public class TipOverModel{
         this.filename = filename;
         this.startConfig = new TipOverConfig(this.filename);
         this.config = new TipOverConfig(this.filename);
+        this.distances = null;
+        this.loadSolution();
         this.announce(null);
     }
 
@@ -146,10 +161,32 @@ public class TipOverModel{
     }
 
     /**
-     * Returns the next step
+     * Returns the next step, or says no hint was found if the search runs out of time.
+     * The path is kept in the shared cache, so following the hint doesn't search again.
      */
     public void getHint() {
-        this.path = Solver.solve(this.config);
+        if (this.distances != null && this.distances.contains(this.config)) {
+            // the next grid is a lookup, only the first step of the path is needed
+            Configuration next = this.distances.hint(this.config);
+            this.path = next == null ? List.of(this.config) : List.of(this.config, next);
+        }
+        else {
+            this.path = PathCache.shared().get(this.config);
+        }
+        if (this.path == null) {
+            SolveResult result = Solver.solve(this.config,
+                    new SolverOptions().maxStates(HINT_STATES).timeout(HINT_TIME));
+            this.path = result.getPath();
+            if (result.getStatus() == SolveResult.Status.BUDGET_EXCEEDED
+                    || result.getStatus() == SolveResult.Status.CANCELLED) {
+                this.announce("No hint found in time");
+                return;
+            }
+            PathCache.shared().put(this.path);
+            if (this.config.equals(this.startConfig)) {
+                SolutionStore.shared().put(Path.of(this.filename), this.startConfig, result);
+            }
+        }
         if (this.path.size() > 1) {
             if (this.config.getHeight() > 1) {
                 this.config = (TipOverConfig) path.get(1);
@@ -165,6 +202,41 @@ public class TipOverModel{
         this.announce(null);
     }
 
+    /**
+     * Returns the fewest moves left to reach the goal
+     * @return moves, -1 if the goal can't be reached or the search runs out of time
+     */
+    public int movesRemaining() {
+        if (this.distances != null && this.distances.contains(this.config)) {
+            return this.distances.distance(this.config);
+        }
+        List<Configuration> cached = PathCache.shared().get(this.config);
+        if (cached == null) {
+            cached = Solver.solve(this.config,
+                    new SolverOptions().maxStates(HINT_STATES).timeout(HINT_TIME)).getPath();
+        }
+        return cached.size() - 1;
+    }
+
+    /**
+     * Works out the distance to the goal from every grid reachable from the current one,
+     * so hints and moves remaining are lookups instead of searches
+     */
+    public void precompute() {
+        this.distances = DistanceTable.build(this.config);
+    }
+
+    /**
+     * Puts the stored solution of the puzzle file, if there is one, in the shared cache,
+     * so the first hints of a puzzle solved before don't search
+     */
+    private void loadSolution() {
+        SolveResult stored = SolutionStore.shared().get(Path.of(this.filename), this.startConfig);
+        if (stored != null && stored.isSolved()) {
+            PathCache.shared().put(stored.getPath());
+        }
+    }
+
     /**
      * Returns if the grid is solvable
      * @return solvable
@@ -117,6 +117,9 @@ public class TipOverPTUI implements TipOverObserver<TipOverModel, Object>{
      */
     @Override
     public void update(TipOverModel o, Object o2) {
+        if (o2 != null) {
+            System.out.println(o2);
+        }
         if (this.model.getConfig().isSolution()) {
             this.model.show();
             System.out.println("YOU WON");
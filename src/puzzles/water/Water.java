@@ -51,7 +51,7 @@ public class Water {
 
             // Prints path of water config
             WaterConfig water = new WaterConfig(Integer.parseInt(args[0]), buckets, empty);
-            List<Configuration> path = Solver.solve(water);
+            List<Configuration> path = Solver.solve(water).getPath();
             if (path.size() > 0) {
                 for (int i = 0; i < path.size(); i++) {
                     System.out.println("Step " + i + ": " + path.get(i));
@@ -0,0 +1,255 @@
+package solver;
+
+import java.util.*;
+
+/**
+ * Searches for a shortest path using an admissible heuristic to expand the configs
+ * that look closest to a solution first. Solves either with A*, which remembers
+ * every config it has seen, or with IDA*, which only keeps the current path and
+ * repeats depth first searches with a growing limit.
+ *
+ * @author Darian Cheung
+ */
+public class AStarSolver {
+
+    // returned by search once the path ends in a solution, or once the budget has run out
+    private static final int FOUND = -1;
+    private static final int STOPPED = -2;
+
+    // estimate of the moves left from a config
+    private final Heuristic<Configuration> heuristic;
+
+    /**
+     * Creates a solver using the heuristic
+     * @param heuristic admissible heuristic for the configs that will be solved
+     */
+    public AStarSolver(Heuristic<Configuration> heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Solves the config with A* and no limits
+     * @param config starting config
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public SolveResult solve(Configuration config) {
+        return solve(config, new SolverOptions());
+    }
+
+    /**
+     * Solves the config with A*, a config is queued again whenever a shorter way to it is found.
+     * Only the limits, cancellation and progress of the options are used, every config seen is
+     * kept on the heap.
+     * @param config starting config
+     * @param options limits of the search and who to tell its progress
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public SolveResult solve(Configuration config, SolverOptions options) {
+        Budget budget = new Budget(options);
+        try (Progress progress = new Progress(options)) {
+            SolveResult result = solve(config, budget, progress);
+            progress.publish(result.getMetrics(), 0);
+            return result;
+        }
+    }
+
+    /**
+     * Solves the config with A* within the budget
+     * @param config starting config
+     * @param budget limits of the search
+     * @param progress where snapshots of the search are published
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    private SolveResult solve(Configuration config, Budget budget, Progress progress) {
+        SolverMetrics metrics = new SolverMetrics();
+
+        // Predecessor Map and the fewest moves found to each config
+        Map<Configuration, Configuration> predecessors = new HashMap<>();
+        Map<Configuration, Integer> moves = new HashMap<>();
+        // Queue ordered by moves plus estimate, ties go to whichever was queued first
+        PriorityQueue<Entry> queue = new PriorityQueue<>();
+        long queued = 0;
+
+        int estimate = heuristic.estimate(config);
+        if (estimate == Integer.MAX_VALUE) {
+            return new SolveResult(new ArrayList<>(), metrics);
+        }
+        predecessors.put(config, null);
+        moves.put(config, 0);
+        queue.add(new Entry(config, 0, estimate, queued++));
+
+        while (!queue.isEmpty()) {
+            Entry current = queue.remove();
+            // a shorter way to this config was queued after this one
+            if (current.moves > moves.get(current.config)) {
+                continue;
+            }
+            if (current.config.isSolution()) {
+                return new SolveResult(Solver.buildPath(predecessors, current.config), metrics);
+            }
+            SolveResult.Status stop = budget.check(metrics);
+            if (stop != null) {
+                return new SolveResult(stop, metrics);
+            }
+            progress.sample(metrics, queue.size());
+            metrics.expanded();
+            int next = current.moves + 1;
+            for (Configuration nbr : current.config.getNeighbors()) {
+                metrics.generated();
+                Integer known = moves.get(nbr);
+                if (known != null && known <= next) {
+                    continue;
+                }
+                estimate = heuristic.estimate(nbr);
+                if (estimate == Integer.MAX_VALUE) {
+                    continue;
+                }
+                if (known == null) {
+                    metrics.unique();
+                }
+                predecessors.put(nbr, current.config);
+                moves.put(nbr, next);
+                queue.add(new Entry(nbr, next, next + estimate, queued++));
+            }
+            metrics.frontier(queue.size());
+        }
+        // no solution, empty path
+        return new SolveResult(new ArrayList<>(), metrics);
+    }
+
+    /**
+     * Solves the config with IDA* and no limits
+     * @param config starting config
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public SolveResult solveIterative(Configuration config) {
+        return solveIterative(config, new SolverOptions());
+    }
+
+    /**
+     * Solves the config with IDA*, using memory for the current path only. Only the limits,
+     * cancellation and progress of the options are used. Nothing is remembered off the path,
+     * so every config generated that isn't on it counts as unique, and the peak frontier is
+     * the longest path searched.
+     * @param config starting config
+     * @param options limits of the search and who to tell its progress
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public SolveResult solveIterative(Configuration config, SolverOptions options) {
+        try (Progress progress = new Progress(options)) {
+            Search search = new Search(config, new Budget(options), progress);
+            SolveResult result = search.solve();
+            progress.publish(result.getMetrics(), 0);
+            return result;
+        }
+    }
+
+    /**
+     * One IDA* solve, the path being searched and what it has done so far
+     */
+    private class Search {
+
+        // configs from the start to the one being searched, and the same configs to skip cycles quickly
+        private final LinkedList<Configuration> path = new LinkedList<>();
+        private final Set<Configuration> onPath = new HashSet<>();
+        private final SolverMetrics metrics = new SolverMetrics();
+        private final Budget budget;
+        private final Progress progress;
+        // why the search stopped, null until it has to
+        private SolveResult.Status stop;
+
+        /**
+         * Starts the path at the config
+         * @param config starting config
+         * @param budget limits of the search
+         * @param progress where snapshots of the search are published
+         */
+        Search(Configuration config, Budget budget, Progress progress) {
+            this.budget = budget;
+            this.progress = progress;
+            path.add(config);
+            onPath.add(config);
+        }
+
+        /**
+         * Repeats the depth first search with the bound raised each time to the smallest
+         * moves plus estimate that went past it
+         * @return shortest path to a solution, empty if there is none, and the metrics
+         */
+        SolveResult solve() {
+            int bound = heuristic.estimate(path.getFirst());
+            while (bound != Integer.MAX_VALUE) {
+                int result = search(0, bound);
+                if (result == FOUND) {
+                    return new SolveResult(new ArrayList<>(path), metrics);
+                }
+                if (result == STOPPED) {
+                    return new SolveResult(stop, metrics);
+                }
+                bound = result;
+            }
+            // no solution, empty path
+            return new SolveResult(new ArrayList<>(), metrics);
+        }
+
+        /**
+         * Depth first search from the end of the path, not going past the bound
+         * @param moves moves made to get to the end of the path
+         * @param bound most moves plus estimate allowed
+         * @return FOUND, STOPPED, or the smallest moves plus estimate that went past the bound
+         */
+        private int search(int moves, int bound) {
+            Configuration current = path.getLast();
+            int estimate = heuristic.estimate(current);
+            if (estimate == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+            if (moves + estimate > bound) {
+                return moves + estimate;
+            }
+            if (current.isSolution()) {
+                return FOUND;
+            }
+            stop = budget.check(metrics);
+            if (stop != null) {
+                return STOPPED;
+            }
+            progress.sample(metrics, path.size());
+            metrics.expanded();
+            int smallest = Integer.MAX_VALUE;
+            for (Configuration nbr : current.getNeighbors()) {
+                metrics.generated();
+                if (onPath.contains(nbr)) {
+                    continue;
+                }
+                metrics.unique();
+                path.addLast(nbr);
+                onPath.add(nbr);
+                metrics.frontier(path.size());
+                int result = search(moves + 1, bound);
+                if (result == FOUND || result == STOPPED) {
+                    return result;
+                }
+                smallest = Math.min(smallest, result);
+                onPath.remove(nbr);
+                path.removeLast();
+            }
+            return smallest;
+        }
+    }
+
+    /**
+     * A config in the queue with the moves made to get to it
+     */
+    private record Entry(Configuration config, int moves, int priority, long order)
+            implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package solver;
+
+/**
+ * The limits of one search, made from its {@link SolverOptions} when the search starts,
+ * so the time limit counts from then
+ *
+ * @author Darian Cheung
+ */
+class Budget {
+
+    // configs expanded between looks at the heap, which is slower to read than the other limits
+    private static final int MEMORY_CHECK_INTERVAL = 1024;
+
+    private final long maxStates;
+    private final long maxMemory;
+    private final long deadline;
+    private final CancellationToken cancellation;
+
+    // the heap is looked at on the first check too
+    private int untilMemoryCheck = 1;
+
+    /**
+     * Makes the budget of a search starting now
+     * @param options limits of the search
+     */
+    Budget(SolverOptions options) {
+        this.maxStates = options.getMaxStates();
+        this.maxMemory = options.getMaxMemory();
+        this.deadline = options.getTimeout() == null
+                ? Long.MAX_VALUE
+                : System.nanoTime() + options.getTimeout().toNanos();
+        this.cancellation = options.getCancellation();
+    }
+
+    /**
+     * Makes a budget with no limits
+     * @return Budget
+     */
+    static Budget unlimited() {
+        return new Budget(new SolverOptions());
+    }
+
+    /**
+     * Checks the limits, called before each config is expanded
+     * @param metrics metrics of the search so far
+     * @return why the search has to stop, null if it can go on
+     */
+    SolveResult.Status check(SolverMetrics metrics) {
+        if (cancellation != null && cancellation.isCancelled()) {
+            return SolveResult.Status.CANCELLED;
+        }
+        if (metrics.getUnique() > maxStates) {
+            return SolveResult.Status.BUDGET_EXCEEDED;
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            return SolveResult.Status.BUDGET_EXCEEDED;
+        }
+        if (maxMemory != Long.MAX_VALUE && --untilMemoryCheck == 0) {
+            untilMemoryCheck = MEMORY_CHECK_INTERVAL;
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > maxMemory) {
+                return SolveResult.Status.BUDGET_EXCEEDED;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package solver;
+
+/**
+ * Lets another thread stop a search that is running. The search checks the token
+ * before expanding each config and returns a CANCELLED result once it is set.
+ * <pre>
+ *     CancellationToken token = new CancellationToken();
+ *     Solver.solve(config, new SolverOptions().cancellation(token));
+ *     // from another thread
+ *     token.cancel();
+ * </pre>
+ *
+ * @author Darian Cheung
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every search using this token to stop
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether cancel has been called
+     * @return boolean
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
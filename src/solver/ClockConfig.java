@@ -8,8 +8,6 @@ public class ClockConfig implements Configuration {
     private static int hours, end;
     // Start time
     private int start;
-    private int total = 1;
-    private int unique = 1;
 
     /**
      * Creates a Clock Config
@@ -67,24 +65,51 @@ public class ClockConfig implements Configuration {
         return neighbors;
     }
 
+    /**
+     * Moving the clock back or forward can always be undone, so the
+     * predecessors are the same as the neighbors
+     * @return boolean
+     */
+    @Override
+    public boolean hasPredecessors() {
+        return true;
+    }
+
+    /**
+     * Gets the predecessors of the current config
+     * @return Hashset of Configs
+     */
     @Override
-    public void addTotals() {
-        total++;
+    public Set<Configuration> getPredecessors() {
+        return getNeighbors();
     }
 
+    /**
+     * The time on the clock is enough to tell configs apart
+     * @return boolean
+     */
     @Override
-    public void addUnique() {
-        unique++;
+    public boolean hasKey() {
+        return true;
     }
 
+    /**
+     * Returns the time on the clock
+     * @return long
+     */
     @Override
-    public int returnTotal() {
-        return total;
+    public long key() {
+        return start;
     }
 
+    /**
+     * Returns the clock set to the time in the key
+     * @param key time on the clock
+     * @return Configuration
+     */
     @Override
-    public int returnUnique() {
-        return unique;
+    public Configuration fromKey(long key) {
+        return new ClockConfig((int) key);
     }
 
     /**
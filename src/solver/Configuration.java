@@ -32,8 +32,74 @@ public interface Configuration {
      * @return Hashset of Configurations
      */
     Set<Configuration> getNeighbors();
-    void addTotals();
-    void addUnique();
-    int returnTotal();
-    int returnUnique();
+
+    /**
+     * Returns the neighbor configurations one at a time. Puzzles can make each neighbor
+     * only when it's asked for, so a search that stops early never builds the rest.
+     * @return Iterator of Configurations, none repeated
+     */
+    default Iterator<Configuration> neighbors() {
+        return getNeighbors().iterator();
+    }
+
+    /**
+     * Returns whether the configuration can generate its predecessors, which
+     * is needed to search backwards from the solutions
+     * @return boolean
+     */
+    default boolean hasPredecessors() {
+        return false;
+    }
+
+    /**
+     * Returns the configurations that have this configuration as a neighbor
+     * @return Set of Configurations
+     */
+    default Set<Configuration> getPredecessors() {
+        throw new UnsupportedOperationException("Predecessors not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Returns whether the configuration has a board of cells that getBoard can give
+     * @return boolean
+     */
+    default boolean hasBoard() {
+        return false;
+    }
+
+    /**
+     * Returns the text of each cell of the board, by row and then column, for writing
+     * the board out in a layout of the caller's own instead of reading it from toString
+     * @return cells, each one a few characters with no spaces
+     */
+    default String[][] getBoard() {
+        throw new UnsupportedOperationException("Boards not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Returns whether the configuration can be packed into a key
+     * @return boolean
+     */
+    default boolean hasKey() {
+        return false;
+    }
+
+    /**
+     * Returns the configuration packed into a non-negative long. Two configurations
+     * of the same puzzle have the same key only if they are equal.
+     * @return key
+     */
+    default long key() {
+        throw new UnsupportedOperationException("Keys not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Returns the configuration of the same puzzle that has the given key,
+     * supported whenever hasKey is
+     * @param key key made by key()
+     * @return Configuration
+     */
+    default Configuration fromKey(long key) {
+        throw new UnsupportedOperationException("Keys not supported by " + getClass().getSimpleName());
+    }
 }
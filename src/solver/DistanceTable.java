@@ -0,0 +1,269 @@
+package solver;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * The number of moves to a solution from every config reachable from a start config,
+ * worked out once so hints and solvability checks are lookups instead of searches.
+ * <br><br>
+ * Building the table runs a breadth first search forwards from the start to find every
+ * reachable config and the solutions among them, then one backwards from all of those
+ * solutions using predecessors, so each config gets its exact distance. Both searches
+ * expand a level at a time in parallel. The table keeps only keys and distances, in
+ * open addressing arrays, and can be saved to a file and loaded again.
+ *
+ * @author Darian Cheung
+ */
+public class DistanceTable {
+
+    /** distance of a config no solution can be reached from */
+    public static final int UNSOLVABLE = -1;
+
+    // marks an empty slot, keys are never negative
+    private static final long EMPTY = -1;
+    // first int of a saved table
+    private static final int MAGIC = 0x44495354;
+
+    private final long[] keys;
+    private final int[] distances;
+    private final int size;
+
+    /**
+     * Fills the hash arrays from lists of keys and their distances
+     * @param keys key of each config
+     * @param distances distance of each config
+     */
+    private DistanceTable(long[] keys, int[] distances) {
+        this.size = keys.length;
+        // keep at most half the slots full so probes stay short
+        int capacity = Integer.highestOneBit(Math.max(2, keys.length) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.distances = new int[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        int mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = (int) LongStateTable.mix(keys[i]) & mask;
+            while (this.keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = keys[i];
+            this.distances[slot] = distances[i];
+        }
+    }
+
+    /**
+     * Builds the table for every config reachable from start, using the common ForkJoinPool
+     * @param start starting config, must have keys and predecessors
+     * @return DistanceTable
+     */
+    public static DistanceTable build(Configuration start) {
+        return build(start, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the table on the given pool
+     * @param start starting config, must have keys and predecessors
+     * @param pool pool that expands each level
+     * @return DistanceTable
+     */
+    public static DistanceTable build(Configuration start, ForkJoinPool pool) {
+        if (!start.hasKey() || !start.hasPredecessors()) {
+            throw new UnsupportedOperationException("A distance table needs keys and predecessors, which "
+                    + start.getClass().getSimpleName() + " doesn't have");
+        }
+
+        // every config reachable from the start, and the solutions among them
+        Set<Long> reachable = ConcurrentHashMap.newKeySet();
+        Set<Long> goals = ConcurrentHashMap.newKeySet();
+        reachable.add(start.key());
+        long[] level = {start.key()};
+        while (level.length > 0) {
+            long[] current = level;
+            level = pool.submit(() -> LongStream.of(current).parallel()
+                    .mapToObj(start::fromKey)
+                    .peek(config -> {
+                        if (config.isSolution()) {
+                            goals.add(config.key());
+                        }
+                    })
+                    .flatMap(config -> config.getNeighbors().stream())
+                    .mapToLong(Configuration::key)
+                    .filter(reachable::add)
+                    .toArray()).join();
+        }
+
+        // backwards from every solution, only through reachable configs
+        Set<Long> reached = ConcurrentHashMap.newKeySet();
+        reached.addAll(goals);
+        List<long[]> levels = new ArrayList<>();
+        level = goals.stream().mapToLong(Long::longValue).toArray();
+        while (level.length > 0) {
+            levels.add(level);
+            long[] current = level;
+            level = pool.submit(() -> LongStream.of(current).parallel()
+                    .mapToObj(start::fromKey)
+                    .flatMap(config -> config.getPredecessors().stream())
+                    .mapToLong(Configuration::key)
+                    .filter(key -> reachable.contains(key) && reached.add(key))
+                    .toArray()).join();
+        }
+
+        long[] keys = new long[reachable.size()];
+        int[] distances = new int[keys.length];
+        int i = 0;
+        for (int depth = 0; depth < levels.size(); depth++) {
+            for (long key : levels.get(depth)) {
+                keys[i] = key;
+                distances[i++] = depth;
+            }
+        }
+        for (long key : reachable) {
+            if (!reached.contains(key)) {
+                keys[i] = key;
+                distances[i++] = UNSOLVABLE;
+            }
+        }
+        return new DistanceTable(keys, distances);
+    }
+
+    /**
+     * Returns whether the config was reachable from the start config the table was built from
+     * @param config config of the same puzzle
+     * @return boolean
+     */
+    public boolean contains(Configuration config) {
+        return find(config.key()) >= 0;
+    }
+
+    /**
+     * Returns the fewest moves from the config to a solution
+     * @param config config in the table
+     * @return moves, UNSOLVABLE if no solution can be reached
+     * @throws IllegalArgumentException if the config isn't in the table
+     */
+    public int distance(Configuration config) {
+        int slot = find(config.key());
+        if (slot < 0) {
+            throw new IllegalArgumentException("Config not in the distance table: " + config);
+        }
+        return distances[slot];
+    }
+
+    /**
+     * Returns whether a solution can be reached from the config
+     * @param config config in the table
+     * @return boolean
+     */
+    public boolean isSolvable(Configuration config) {
+        return distance(config) != UNSOLVABLE;
+    }
+
+    /**
+     * Returns a neighbor one move closer to a solution
+     * @param config config in the table
+     * @return next config on a shortest path, null if config is a solution or can't reach one
+     */
+    public Configuration hint(Configuration config) {
+        int distance = distance(config);
+        if (distance <= 0) {
+            return null;
+        }
+        for (Configuration nbr : config.getNeighbors()) {
+            int slot = find(nbr.key());
+            if (slot >= 0 && distances[slot] == distance - 1) {
+                return nbr;
+            }
+        }
+        throw new IllegalStateException("No neighbor is closer to a solution than " + config);
+    }
+
+    /**
+     * Returns a shortest path from the config to a solution by following hints
+     * @param config config in the table
+     * @return path starting with config, empty if no solution can be reached
+     */
+    public List<Configuration> path(Configuration config) {
+        List<Configuration> path = new ArrayList<>();
+        if (!isSolvable(config)) {
+            return path;
+        }
+        for (Configuration node = config; node != null; node = hint(node)) {
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of configs in the table
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the keys and distances to a file. The file only makes sense for the puzzle
+     * the table was built from, so it should be named after that puzzle.
+     * @param file file to write, replaced if it's already there
+     * @throws IOException if the file can't be written
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    out.writeLong(keys[slot]);
+                    out.writeInt(distances[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a table written by save
+     * @param file file to read
+     * @return DistanceTable
+     * @throws IOException if the file can't be read or isn't a saved table
+     */
+    public static DistanceTable load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a distance table: " + file);
+            }
+            long[] keys = new long[in.readInt()];
+            int[] distances = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = in.readLong();
+                distances[i] = in.readInt();
+            }
+            return new DistanceTable(keys, distances);
+        }
+    }
+
+    /**
+     * Finds the slot holding the key
+     * @param key key of a config
+     * @return slot, -1 if it's not in the table
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) LongStateTable.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,364 @@
+package solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A breadth first search that keeps each level and the visited configs in files
+ * of fixed width records, so the number of configs it can search is bounded by
+ * disk instead of memory. Files are only ever read and written from start to end.
+ * <br><br>
+ * The children of a level are written out in sorted runs, then merged, with repeats
+ * dropped and configs already in the sorted visited file skipped, instead of being
+ * looked up in a hash table one at a time. The puzzles aren't reversible (a tipped
+ * tower stays tipped), so a child can repeat a config from any earlier level, not
+ * just the last two, which is why every level is checked against the whole visited
+ * file. The next level is then put back in the order Solver's queue would have it,
+ * so the path found is as short as the one {@link Solver#solve(Configuration)} finds,
+ * and the same one when the configs made from keys list their neighbors in the same order.
+ *
+ * @author Darian Cheung
+ */
+public class ExternalSolver {
+
+    // a level record is the config's key, its parent's key, and the order it was found in
+    private static final int KEY = 0, PARENT = 1, ORDER = 2;
+    private static final int RECORD_LONGS = 3;
+    // records sorted in memory before being written out as a run
+    private static final int RUN_RECORDS = 1 << 20;
+    // the order of a child is its parent's place in the level, then its place among the neighbors
+    private static final int CHILD_BITS = 16;
+
+    /**
+     * Solves the config in a new temporary directory, which is removed afterwards.
+     * Configs without keys are solved with {@link Solver#solve(Configuration)}.
+     * @param config starting config
+     * @param parent directory the temporary directory is made in
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public static SolveResult solve(Configuration config, Path parent) {
+        return solve(config, parent, Budget.unlimited(), Progress.none());
+    }
+
+    /**
+     * Solves the config within a budget
+     * @param config starting config
+     * @param parent directory the temporary directory is made in
+     * @param budget limits of the search
+     * @param progress where snapshots of the search are published
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    static SolveResult solve(Configuration config, Path parent, Budget budget, Progress progress) {
+        if (!config.hasKey()) {
+            return Solver.solve(config, budget, progress);
+        }
+        Path directory;
+        try {
+            directory = Files.createTempDirectory(parent, "bfs-levels");
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not create work directory in " + parent, e);
+        }
+        try {
+            return search(config, directory, budget, progress);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("External search failed in " + directory, e);
+        }
+        finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Runs the search one level at a time
+     * @param config starting config
+     * @param directory work directory
+     * @param budget limits of the search
+     * @param progress where snapshots of the search are published
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     * @throws IOException if a file can't be read or written
+     */
+    private static SolveResult search(Configuration config, Path directory, Budget budget, Progress progress)
+            throws IOException {
+        SolverMetrics metrics = new SolverMetrics();
+        if (config.isSolution()) {
+            return new SolveResult(Solver.replayPath(config, new long[] {config.key()}), metrics);
+        }
+        Path visited = directory.resolve("visited.bin");
+        try (RecordFile.Writer out = new RecordFile.Writer(visited, 1)) {
+            out.write(config.key());
+        }
+        try (RecordFile.Writer out = new RecordFile.Writer(level(directory, 0), RECORD_LONGS)) {
+            out.write(config.key(), StateStore.NO_PARENT, 0);
+        }
+
+        metrics.level(1);
+        // configs in the level being expanded
+        long size = 1;
+        for (int depth = 0; ; depth++) {
+            // expand the level in queue order, spilling the children into runs sorted by key
+            Runs children = new Runs(directory, "children", KEY);
+            try (RecordFile.Reader in = new RecordFile.Reader(level(directory, depth), RECORD_LONGS)) {
+                long place = 0;
+                while (in.next()) {
+                    SolveResult.Status stop = budget.check(metrics);
+                    if (stop != null) {
+                        return new SolveResult(stop, metrics);
+                    }
+                    progress.sample(metrics, size - place);
+                    long key = in.get(KEY);
+                    Configuration current = config.fromKey(key);
+                    metrics.expanded();
+                    long child = 0;
+                    for (Iterator<Configuration> nbrs = current.neighbors(); nbrs.hasNext(); ) {
+                        Configuration nbr = nbrs.next();
+                        metrics.generated();
+                        // the first solution made in queue order is the one Solver stops at
+                        if (nbr.isSolution()) {
+                            long[] keys = keyPath(directory, depth + 1, nbr.key(), key);
+                            return new SolveResult(Solver.replayPath(config, keys), metrics);
+                        }
+                        children.add(nbr.key(), key, (place << CHILD_BITS) | child++);
+                    }
+                    if (child >= 1 << CHILD_BITS) {
+                        throw new IllegalStateException("Too many neighbors of " + current);
+                    }
+                    place++;
+                }
+            }
+
+            // merge the runs, keeping the first of each key that isn't visited yet
+            Path fresh = directory.resolve("fresh.bin");
+            Runs next = new Runs(directory, "next", ORDER);
+            long found = 0;
+            try (RecordFile.Merger merged = new RecordFile.Merger(children.finish(), RECORD_LONGS, KEY);
+                 RecordFile.Reader seen = new RecordFile.Reader(visited, 1);
+                 RecordFile.Writer freshKeys = new RecordFile.Writer(fresh, 1)) {
+                boolean more = seen.next();
+                long last = -1;
+                while (merged.next()) {
+                    long key = merged.get(KEY);
+                    if (key == last) {
+                        continue;
+                    }
+                    last = key;
+                    while (more && seen.get(0) < key) {
+                        more = seen.next();
+                    }
+                    if (more && seen.get(0) == key) {
+                        continue;
+                    }
+                    freshKeys.write(key);
+                    next.add(key, merged.get(PARENT), merged.get(ORDER));
+                    found++;
+                }
+            }
+            children.delete();
+            if (found == 0) {
+                // no solution, empty path
+                Files.delete(fresh);
+                return new SolveResult(new ArrayList<>(), metrics);
+            }
+            metrics.unique(found);
+            metrics.level(found);
+            size = found;
+
+            // add the new keys to the visited file
+            Path merging = directory.resolve("visited-next.bin");
+            try (RecordFile.Merger keys = new RecordFile.Merger(List.of(visited, fresh), 1, 0);
+                 RecordFile.Writer out = new RecordFile.Writer(merging, 1)) {
+                while (keys.next()) {
+                    out.write(keys.get(0));
+                }
+            }
+            Files.delete(fresh);
+            Files.move(merging, visited, StandardCopyOption.REPLACE_EXISTING);
+
+            // the next level, back in the order the queue would have it
+            try (RecordFile.Merger ordered = new RecordFile.Merger(next.finish(), RECORD_LONGS, ORDER);
+                 RecordFile.Writer out = new RecordFile.Writer(level(directory, depth + 1), RECORD_LONGS)) {
+                while (ordered.next()) {
+                    out.write(ordered.get(KEY), ordered.get(PARENT), ordered.get(ORDER));
+                }
+            }
+            next.delete();
+        }
+    }
+
+    /**
+     * Follows parent keys back through the level files, reading each one from the start
+     * @param directory work directory
+     * @param depth level of the solution
+     * @param solution key of the solution
+     * @param parent key of the solution's parent
+     * @return keys from start to solution
+     * @throws IOException if a level file can't be read
+     */
+    private static long[] keyPath(Path directory, int depth, long solution, long parent) throws IOException {
+        long[] keys = new long[depth + 1];
+        keys[depth] = solution;
+        for (int d = depth - 1; d >= 0; d--) {
+            keys[d] = parent;
+            try (RecordFile.Reader in = new RecordFile.Reader(level(directory, d), RECORD_LONGS)) {
+                while (in.next()) {
+                    if (in.get(KEY) == keys[d]) {
+                        parent = in.get(PARENT);
+                        break;
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the file of a level
+     * @param directory work directory
+     * @param depth level number
+     * @return Path
+     */
+    private static Path level(Path directory, int depth) {
+        return directory.resolve("level-" + depth + ".bin");
+    }
+
+    /**
+     * Deletes the work directory and everything in it
+     * @param directory work directory
+     */
+    private static void delete(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not remove work directory " + directory, e);
+        }
+    }
+
+    /**
+     * Collects level records in memory and writes them out as sorted runs once the buffer fills.
+     * The sort is stable, so records with the same key stay in the order they were added.
+     * When sorting by key only the first record of each key is written.
+     */
+    private static class Runs {
+
+        private final Path directory;
+        private final String name;
+        private final int field;
+        private final List<Path> files = new ArrayList<>();
+
+        private final long[] buffer = new long[RUN_RECORDS * RECORD_LONGS];
+        private int count;
+
+        /**
+         * Creates an empty set of runs
+         * @param directory work directory
+         * @param name start of the run file names
+         * @param field field the records are sorted by
+         */
+        Runs(Path directory, String name, int field) {
+            this.directory = directory;
+            this.name = name;
+            this.field = field;
+        }
+
+        /**
+         * Adds a record, writing a run if the buffer is full
+         */
+        void add(long key, long parent, long order) throws IOException {
+            if (count == RUN_RECORDS) {
+                flush();
+            }
+            int at = count * RECORD_LONGS;
+            buffer[at + KEY] = key;
+            buffer[at + PARENT] = parent;
+            buffer[at + ORDER] = order;
+            count++;
+        }
+
+        /**
+         * Writes whatever is left in the buffer
+         * @return the run files, each sorted
+         */
+        List<Path> finish() throws IOException {
+            if (count > 0) {
+                flush();
+            }
+            return files;
+        }
+
+        /**
+         * Deletes the run files
+         */
+        void delete() throws IOException {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        /**
+         * Sorts the buffer and writes it to a new run file
+         */
+        private void flush() throws IOException {
+            int[] sorted = sort();
+            Path file = directory.resolve(name + "-" + files.size() + ".bin");
+            try (RecordFile.Writer out = new RecordFile.Writer(file, RECORD_LONGS)) {
+                long last = -1;
+                for (int i : sorted) {
+                    int at = i * RECORD_LONGS;
+                    if (field == KEY && buffer[at + KEY] == last) {
+                        continue;
+                    }
+                    last = buffer[at + KEY];
+                    out.write(buffer[at + KEY], buffer[at + PARENT], buffer[at + ORDER]);
+                }
+            }
+            files.add(file);
+            count = 0;
+        }
+
+        /**
+         * Stable merge sort of the buffered records by the sort field
+         * @return record numbers in sorted order
+         */
+        private int[] sort() {
+            int[] order = new int[count];
+            int[] spare = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            for (int width = 1; width < count; width <<= 1) {
+                for (int low = 0; low < count; low += width << 1) {
+                    int mid = Math.min(low + width, count);
+                    int high = Math.min(low + (width << 1), count);
+                    int a = low, b = mid, out = low;
+                    while (a < mid && b < high) {
+                        spare[out++] = value(order[b]) < value(order[a]) ? order[b++] : order[a++];
+                    }
+                    while (a < mid) {
+                        spare[out++] = order[a++];
+                    }
+                    while (b < high) {
+                        spare[out++] = order[b++];
+                    }
+                }
+                int[] swap = order;
+                order = spare;
+                spare = swap;
+            }
+            return order;
+        }
+
+        private long value(int record) {
+            return buffer[record * RECORD_LONGS + field];
+        }
+    }
+}
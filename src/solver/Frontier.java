@@ -0,0 +1,84 @@
+package solver;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A first-in first-out queue of configurations backed by a circular array.
+ * Used as the BFS frontier so that every enqueued configuration costs a
+ * single array slot instead of a linked list node.
+ *
+ * @author Darian Cheung
+ */
+class Frontier {
+
+    // Starting number of slots, always a power of two
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Slots of the queue, head is the next to be removed
+    private Configuration[] slots;
+    private int head;
+    private int size;
+
+    /**
+     * Creates an empty frontier
+     */
+    Frontier() {
+        this.slots = new Configuration[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a config to the end of the queue, doubling the array when full
+     * @param config config to add
+     */
+    void offer(Configuration config) {
+        if (size == slots.length) {
+            grow();
+        }
+        slots[(head + size) & (slots.length - 1)] = config;
+        size++;
+    }
+
+    /**
+     * Removes the config at the front of the queue
+     * @return front config
+     */
+    Configuration remove() {
+        if (size == 0) {
+            throw new NoSuchElementException("Frontier is empty");
+        }
+        Configuration config = slots[head];
+        // clear the slot so the config can be collected once it's expanded
+        slots[head] = null;
+        head = (head + 1) & (slots.length - 1);
+        size--;
+        return config;
+    }
+
+    /**
+     * Is the queue empty
+     * @return true if there are no configs left
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of configs in the queue
+     * @return size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the array, unwrapping the queue so that head is at index 0
+     */
+    private void grow() {
+        Configuration[] bigger = new Configuration[slots.length << 1];
+        int firstPart = slots.length - head;
+        System.arraycopy(slots, head, bigger, 0, firstPart);
+        System.arraycopy(slots, 0, bigger, firstPart, head);
+        slots = bigger;
+        head = 0;
+    }
+}
@@ -0,0 +1,20 @@
+package solver;
+
+/**
+ * An estimate of how many moves are left from a configuration to a solution.
+ * For the heuristic solvers to return shortest paths the estimate must be
+ * admissible, never more than the real number of moves left.
+ *
+ * @param <T> type of configuration estimated
+ * @author Darian Cheung
+ */
+@FunctionalInterface
+public interface Heuristic<T extends Configuration> {
+
+    /**
+     * Returns a lower bound on the moves left to a solution
+     * @param config configuration to estimate
+     * @return 0 for a solution, Integer.MAX_VALUE if no solution can be reached
+     */
+    int estimate(T config);
+}
@@ -0,0 +1,131 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table from configuration keys to the key of the
+ * configuration they came from, stored in two long arrays. A visited config
+ * costs two array slots instead of a map entry holding the whole config.
+ *
+ * @author Darian Cheung
+ */
+class LongStateTable implements StateStore {
+
+    // marks an empty slot, keys are never negative
+    private static final long EMPTY = -1;
+
+    // Starting number of slots, always a power of two
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private long[] keys;
+    private long[] parents;
+    private int size;
+
+    /**
+     * Creates an empty table
+     */
+    LongStateTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public boolean putIfAbsent(long key, long parent) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        parents[slot] = parent;
+        size++;
+        // keep at most half the slots full so probes stay short
+        if (size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(long key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public long parent(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Key not in table: " + key);
+        }
+        return parents[slot];
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot holding the key
+     * @param key key of a config
+     * @return slot, -1 if it's not in the table
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Doubles the number of slots and puts every key back in
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldParents = parents;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = (int) mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                parents[slot] = oldParents[i];
+            }
+        }
+    }
+
+    /**
+     * Makes empty arrays with the given number of slots
+     * @param capacity number of slots
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        parents = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Spreads the bits of a key so packed keys that only differ in their
+     * low bits don't land next to each other
+     * @param key key of a config
+     * @return hash of the key
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,213 @@
+package solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An open addressing hash table from configuration keys to parent keys, kept in
+ * memory mapped files instead of the heap. The operating system pages the table
+ * in and out as needed, so a search can visit more configs than the heap can hold.
+ * The files live in a temporary directory that is removed by {@link #close()}.
+ *
+ * @author Darian Cheung
+ */
+class MappedStateTable implements StateStore {
+
+    // each slot holds the key plus one, so an all zero slot is empty, then the parent
+    private static final int SLOT_BYTES = 16;
+    // bytes mapped at a time, a whole number of slots
+    private static final int SEGMENT_BYTES = 1 << 30;
+    private static final long SLOTS_PER_SEGMENT = SEGMENT_BYTES / SLOT_BYTES;
+
+    // Starting number of slots, always a power of two
+    private static final long INITIAL_CAPACITY = 1 << 20;
+
+    // directory holding the table file, and the file in use
+    private final Path directory;
+    private Path file;
+    private FileChannel channel;
+    private MappedByteBuffer[] segments;
+
+    private long capacity;
+    private long size;
+    // number of table files made, used to name the next one
+    private int generation;
+
+    /**
+     * Creates an empty table in a new temporary directory
+     * @param parent directory the temporary directory is made in
+     */
+    MappedStateTable(Path parent) {
+        try {
+            this.directory = Files.createTempDirectory(parent, "bfs-states");
+            this.directory.toFile().deleteOnExit();
+            allocate(INITIAL_CAPACITY);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not create state table in " + parent, e);
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(long key, long parent) {
+        long mask = capacity - 1;
+        long slot = LongStateTable.mix(key) & mask;
+        long stored;
+        while ((stored = storedKey(slot)) != 0) {
+            if (stored == key + 1) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        write(slot, key + 1, parent);
+        size++;
+        // keep at most half the slots full so probes stay short
+        if (size * 2 > capacity) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(long key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public long parent(long key) {
+        long slot = find(key);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Key not in table: " + key);
+        }
+        return segment(slot).getLong(offset(slot) + Long.BYTES);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Unmaps the table and deletes its file and directory
+     */
+    @Override
+    public void close() {
+        segments = null;
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not remove state table " + directory, e);
+        }
+    }
+
+    /**
+     * Finds the slot holding the key
+     * @param key key of a config
+     * @return slot, -1 if it's not in the table
+     */
+    private long find(long key) {
+        long mask = capacity - 1;
+        long slot = LongStateTable.mix(key) & mask;
+        long stored;
+        while ((stored = storedKey(slot)) != 0) {
+            if (stored == key + 1) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the stored key, the real key plus one, of a slot
+     * @param slot slot number
+     * @return stored key, 0 if the slot is empty
+     */
+    private long storedKey(long slot) {
+        return segment(slot).getLong(offset(slot));
+    }
+
+    /**
+     * Writes a slot
+     * @param slot slot number
+     * @param stored key plus one
+     * @param parent key of the config it came from
+     */
+    private void write(long slot, long stored, long parent) {
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        segment.putLong(offset, stored);
+        segment.putLong(offset + Long.BYTES, parent);
+    }
+
+    private MappedByteBuffer segment(long slot) {
+        return segments[(int) (slot / SLOTS_PER_SEGMENT)];
+    }
+
+    private int offset(long slot) {
+        return (int) (slot % SLOTS_PER_SEGMENT) * SLOT_BYTES;
+    }
+
+    /**
+     * Moves every key into a new file with twice the slots, then deletes the old file
+     */
+    private void grow() {
+        MappedByteBuffer[] oldSegments = segments;
+        long oldCapacity = capacity;
+        FileChannel oldChannel = channel;
+        Path oldFile = file;
+        try {
+            allocate(oldCapacity << 1);
+            long mask = capacity - 1;
+            for (long i = 0; i < oldCapacity; i++) {
+                MappedByteBuffer segment = oldSegments[(int) (i / SLOTS_PER_SEGMENT)];
+                int offset = offset(i);
+                long stored = segment.getLong(offset);
+                if (stored != 0) {
+                    long slot = LongStateTable.mix(stored - 1) & mask;
+                    while (storedKey(slot) != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    write(slot, stored, segment.getLong(offset + Long.BYTES));
+                }
+            }
+            oldChannel.close();
+            Files.deleteIfExists(oldFile);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not grow state table in " + directory, e);
+        }
+    }
+
+    /**
+     * Makes a new zero filled file with the given number of slots and maps it
+     * @param slots number of slots, a power of two
+     * @throws IOException if the file can't be made
+     */
+    private void allocate(long slots) throws IOException {
+        file = directory.resolve("states-" + generation++ + ".bin");
+        file.toFile().deleteOnExit();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE);
+        long bytes = slots * SLOT_BYTES;
+        int count = (int) ((bytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+        segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long position = (long) i * SEGMENT_BYTES;
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                    Math.min(SEGMENT_BYTES, bytes - position));
+        }
+        capacity = slots;
+    }
+}
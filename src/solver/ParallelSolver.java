@@ -0,0 +1,192 @@
+package solver;
+
+import java.io.Serial;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A breadth first search that expands one whole level of the search at a time,
+ * splitting the level across the threads of a ForkJoinPool. Every config in a level
+ * is at the same depth, so the first solution found is still on a shortest path.
+ *
+ * @author Darian Cheung
+ */
+public class ParallelSolver {
+
+    // Number of configs a task expands itself instead of splitting further
+    private static final int THRESHOLD = 64;
+
+    /**
+     * Solves the config using the common ForkJoinPool
+     * @param config starting config
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public static SolveResult solve(Configuration config) {
+        return solve(config, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves the config on a pool of the given size, the pool is shut down afterwards
+     * @param config starting config
+     * @param parallelism number of threads to expand levels with
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public static SolveResult solve(Configuration config, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return solve(config, pool);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Solves the config on the given pool
+     * @param config starting config
+     * @param pool pool that expands each level
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public static SolveResult solve(Configuration config, ForkJoinPool pool) {
+        SolverMetrics metrics = new SolverMetrics();
+        if (config.isSolution()) {
+            return new SolveResult(new ArrayList<>(List.of(config)), metrics);
+        }
+
+        // Predecessor Map shared by every thread, the start config is its own predecessor
+        Map<Configuration, Configuration> predecessors = new ConcurrentHashMap<>();
+        predecessors.put(config, config);
+
+        AtomicReference<Configuration> solution = new AtomicReference<>();
+
+        List<Configuration> level = List.of(config);
+        while (!level.isEmpty()) {
+            metrics.level(level.size());
+            // each slice of THRESHOLD configs puts the configs it found in its own list
+            int slices = (level.size() + THRESHOLD - 1) / THRESHOLD;
+            List<List<Configuration>> found = new ArrayList<>(Collections.nCopies(slices, null));
+            pool.invoke(new Expand(level, 0, slices, found, predecessors, solution, metrics));
+            level = join(found);
+
+            if (solution.get() != null) {
+                return new SolveResult(buildPath(predecessors, config, solution.get()), metrics);
+            }
+        }
+        // no solution, empty path
+        return new SolveResult(new ArrayList<>(), metrics);
+    }
+
+    /**
+     * Joins the lists the slices of a level found into the next level, copying each config once
+     * @param found configs found by each slice, in the order of the slices
+     * @return next level
+     */
+    private static List<Configuration> join(List<List<Configuration>> found) {
+        int size = 0;
+        for (List<Configuration> slice : found) {
+            size += slice.size();
+        }
+        List<Configuration> next = new ArrayList<>(size);
+        for (List<Configuration> slice : found) {
+            next.addAll(slice);
+        }
+        return next;
+    }
+
+    /**
+     * Hops from the solution back to the start config and flips the list
+     * @param predecessors map of configs to the config they came from
+     * @param start config started with
+     * @param solution solution config
+     * @return path from start to solution
+     */
+    private static List<Configuration> buildPath(Map<Configuration, Configuration> predecessors,
+                                                 Configuration start, Configuration solution) {
+        ArrayList<Configuration> path = new ArrayList<>();
+        Configuration node = solution;
+        while (node != start) {
+            path.add(node);
+            node = predecessors.get(node);
+        }
+        path.add(start);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Expands some slices of a level, each slice putting the newly seen configs of the
+     * next level in its own list
+     */
+    private static class Expand extends RecursiveAction {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // slices of the level this task covers, each THRESHOLD configs long but the last
+        private final List<Configuration> level;
+        private final int from, to;
+        // list of new configs of each slice, filled in by the task that expands it
+        private final List<List<Configuration>> found;
+
+        // shared search state
+        private final Map<Configuration, Configuration> predecessors;
+        private final AtomicReference<Configuration> solution;
+        private final SolverMetrics metrics;
+
+        /**
+         * Creates a task over slices [from, to) of the level
+         */
+        Expand(List<Configuration> level, int from, int to, List<List<Configuration>> found,
+               Map<Configuration, Configuration> predecessors,
+               AtomicReference<Configuration> solution, SolverMetrics metrics) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.found = found;
+            this.predecessors = predecessors;
+            this.solution = solution;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                found.set(from, expand());
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Expand(level, from, mid, found, predecessors, solution, metrics),
+                    new Expand(level, mid, to, found, predecessors, solution, metrics));
+        }
+
+        /**
+         * Expands every config in the slice, stopping once any thread has found a solution
+         * @return new configs discovered by this slice
+         */
+        private List<Configuration> expand() {
+            List<Configuration> next = new ArrayList<>();
+            int end = Math.min(level.size(), (from + 1) * THRESHOLD);
+            for (int i = from * THRESHOLD; i < end && solution.get() == null; i++) {
+                Configuration current = level.get(i);
+                metrics.expanded();
+                for (Iterator<Configuration> nbrs = current.neighbors(); nbrs.hasNext(); ) {
+                    Configuration nbr = nbrs.next();
+                    metrics.generated();
+                    // only the thread that gets the config into the map first keeps it
+                    if (predecessors.putIfAbsent(nbr, current) == null) {
+                        metrics.unique();
+                        if (nbr.isSolution()) {
+                            solution.compareAndSet(null, nbr);
+                            break;
+                        }
+                        next.add(nbr);
+                    }
+                }
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package solver;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of solution paths, shared by the puzzle models so a hint doesn't
+ * search again for a path that is already known. Every config on a stored path is
+ * a key for the rest of the path from it, so following a hint finds the next hint
+ * in the cache. Each stored path weighs as many configs as it has, and the least
+ * recently used paths are dropped, along with every config they were stored for,
+ * once the total weight is over capacity.
+ * <br><br>
+ * A path is only handed out if it still ends in a solution, since some puzzles keep
+ * their goal outside the config and a new puzzle can reuse an old board. A path stored
+ * for an equal config that isn't the one asked about is walked again from the config
+ * asked about, so its moves can be made from there.
+ *
+ * @author Darian Cheung
+ */
+public class PathCache {
+
+    // weight of the shared cache, in configs
+    private static final long SHARED_CAPACITY = 100_000;
+    private static final PathCache SHARED = new PathCache(SHARED_CAPACITY);
+
+    private final long capacity;
+    private long weight;
+    // the part of a stored path from each config on it
+    private final Map<Configuration, Suffix> entries = new HashMap<>();
+    // stored paths, iterates from least to most recently used
+    private final LinkedHashSet<Stored> paths = new LinkedHashSet<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache
+     * @param capacity most configs the stored paths may add up to
+     */
+    public PathCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the cache shared by the puzzle models
+     * @return PathCache
+     */
+    public static PathCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the path from a config to a solution, if one is stored
+     * @param config config to start from
+     * @return path starting with config, null if none is stored
+     */
+    public synchronized List<Configuration> get(Configuration config) {
+        Suffix suffix = entries.get(config);
+        if (suffix != null && !suffix.stored.path.get(suffix.stored.path.size() - 1).isSolution()) {
+            // every config on the path leads to the same end, so none of them is any use
+            remove(suffix.stored);
+            suffix = null;
+        }
+        if (suffix == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        // move the path to the most recently used end
+        paths.remove(suffix.stored);
+        paths.add(suffix.stored);
+        List<Configuration> path = suffix.stored.path.subList(suffix.from, suffix.stored.path.size());
+        return path.get(0) == config ? path : Solver.followPath(config, path);
+    }
+
+    /**
+     * Stores a solution path, and the rest of it from each config on it
+     * @param path path ending in a solution
+     */
+    public synchronized void put(List<Configuration> path) {
+        if (path.isEmpty()) {
+            return;
+        }
+        Stored stored = new Stored(List.copyOf(path));
+        paths.add(stored);
+        weight += stored.path.size();
+        for (int i = 0; i < stored.path.size(); i++) {
+            Suffix old = entries.put(stored.path.get(i), new Suffix(stored, i));
+            stored.keys++;
+            // a path no config leads into any more is only weight
+            if (old != null && --old.stored.keys == 0) {
+                paths.remove(old.stored);
+                weight -= old.stored.path.size();
+            }
+        }
+        // drop the least recently used paths until the cache fits
+        Iterator<Stored> eldest = paths.iterator();
+        while (weight > capacity && eldest.hasNext()) {
+            Stored dropped = eldest.next();
+            eldest.remove();
+            removeKeys(dropped);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes every entry, the counters are kept
+     */
+    public synchronized void clear() {
+        entries.clear();
+        paths.clear();
+        weight = 0;
+    }
+
+    /**
+     * Returns the number of lookups that found a path
+     * @return hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that didn't find a path
+     * @return misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of paths dropped to keep the cache under capacity
+     * @return evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of configs a path is stored for
+     * @return entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total weight of the stored paths
+     * @return weight in configs
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "Hits: " + getHits() + ", Misses: " + getMisses() + ", Evictions: " + getEvictions();
+    }
+
+    /**
+     * Drops a stored path and every config it was stored for
+     */
+    private void remove(Stored stored) {
+        paths.remove(stored);
+        removeKeys(stored);
+    }
+
+    /**
+     * Drops the configs a path is still stored for and takes off its weight
+     */
+    private void removeKeys(Stored stored) {
+        for (int i = 0; i < stored.path.size(); i++) {
+            entries.remove(stored.path.get(i), new Suffix(stored, i));
+        }
+        stored.keys = 0;
+        weight -= stored.path.size();
+    }
+
+    /**
+     * A path as it was stored. Equal paths stored twice are different entries, so
+     * this keeps the identity equals.
+     */
+    private static final class Stored {
+
+        private final List<Configuration> path;
+        // number of configs this path is still stored for
+        private int keys;
+
+        Stored(List<Configuration> path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * The part of a stored path from one of its configs to the solution
+     */
+    private record Suffix(Stored stored, int from) {
+    }
+}
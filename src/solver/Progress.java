@@ -0,0 +1,99 @@
+package solver;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Publishes snapshots of one search to the subscribers in its {@link SolverOptions}.
+ * The search only looks at the clock every so often, and a snapshot is offered without
+ * waiting, so a slow subscriber misses snapshots instead of slowing the search. Subscribers
+ * are called on a separate thread, never the one running the search.
+ *
+ * @author Darian Cheung
+ */
+class Progress implements AutoCloseable {
+
+    // configs expanded between looks at the clock
+    private static final int SAMPLE_INTERVAL = 256;
+
+    // threads that hand snapshots to subscribers, daemons so they don't keep the program running
+    private static final Executor EXECUTOR = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "solver-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // null when nothing is subscribed
+    private final SubmissionPublisher<SolverProgress> publisher;
+    private final long intervalNanos;
+    private long nextNanos;
+    private int untilSample = SAMPLE_INTERVAL;
+
+    /**
+     * Subscribes the subscribers of the options, the first snapshot is due one interval from now
+     * @param options subscribers and how often they get a snapshot
+     */
+    Progress(SolverOptions options) {
+        List<Flow.Subscriber<? super SolverProgress>> subscribers = options.getProgressSubscribers();
+        this.intervalNanos = options.getProgressInterval().toNanos();
+        this.nextNanos = System.nanoTime() + intervalNanos;
+        if (subscribers.isEmpty()) {
+            this.publisher = null;
+        }
+        else {
+            this.publisher = new SubmissionPublisher<>(EXECUTOR, Flow.defaultBufferSize());
+            for (Flow.Subscriber<? super SolverProgress> subscriber : subscribers) {
+                publisher.subscribe(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Makes a progress with no subscribers
+     * @return Progress
+     */
+    static Progress none() {
+        return new Progress(new SolverOptions());
+    }
+
+    /**
+     * Called before each config is expanded, publishes a snapshot once an interval has passed
+     * @param metrics metrics of the search so far
+     * @param frontier configs waiting to be expanded
+     */
+    void sample(SolverMetrics metrics, long frontier) {
+        if (publisher == null || --untilSample > 0) {
+            return;
+        }
+        untilSample = SAMPLE_INTERVAL;
+        long now = System.nanoTime();
+        if (now - nextNanos >= 0) {
+            nextNanos = now + intervalNanos;
+            publish(metrics, frontier);
+        }
+    }
+
+    /**
+     * Publishes a snapshot now, dropping it for any subscriber that is behind
+     * @param metrics metrics of the search so far
+     * @param frontier configs waiting to be expanded
+     */
+    void publish(SolverMetrics metrics, long frontier) {
+        if (publisher != null) {
+            publisher.offer(new SolverProgress(metrics, frontier), null);
+        }
+    }
+
+    /**
+     * Tells the subscribers the search is done
+     */
+    @Override
+    public void close() {
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sequential reading and writing of files made of fixed width records of longs,
+ * used by {@link ExternalSolver} for its levels and runs.
+ *
+ * @author Darian Cheung
+ */
+class RecordFile {
+
+    // bytes read or written at a time
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * Writes records to the end of a new file
+     */
+    static class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int longs;
+
+        /**
+         * Creates the file, replacing one that's already there
+         * @param file file to write
+         * @param longs longs in each record
+         * @throws IOException if the file can't be made
+         */
+        Writer(Path file, int longs) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES - BUFFER_BYTES % (longs * Long.BYTES));
+            this.longs = longs;
+        }
+
+        /**
+         * Writes one record
+         * @param record the longs of the record
+         * @throws IOException if the file can't be written
+         */
+        void write(long... record) throws IOException {
+            if (record.length != longs) {
+                throw new IllegalArgumentException("Records have " + longs + " longs, not " + record.length);
+            }
+            if (buffer.remaining() < longs * Long.BYTES) {
+                drain();
+            }
+            for (long value : record) {
+                buffer.putLong(value);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            drain();
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the records of a file from start to end
+     */
+    static class Reader implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final long[] record;
+
+        /**
+         * Opens the file
+         * @param file file to read
+         * @param longs longs in each record
+         * @throws IOException if the file can't be opened
+         */
+        Reader(Path file, int longs) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES - BUFFER_BYTES % (longs * Long.BYTES));
+            this.buffer.limit(0);
+            this.record = new long[longs];
+        }
+
+        /**
+         * Moves to the next record
+         * @return false once there are no records left
+         * @throws IOException if the file can't be read
+         */
+        boolean next() throws IOException {
+            if (buffer.remaining() < record.length * Long.BYTES) {
+                buffer.compact();
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // keep filling until the buffer is full or the file ends
+                }
+                buffer.flip();
+                if (buffer.remaining() < record.length * Long.BYTES) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < record.length; i++) {
+                record[i] = buffer.getLong();
+            }
+            return true;
+        }
+
+        /**
+         * Returns a long of the current record
+         * @param field index in the record
+         * @return long
+         */
+        long get(int field) {
+            return record[field];
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads several files that are each sorted by one field as a single sorted stream.
+     * Records that tie come from the earlier file first.
+     */
+    static class Merger implements AutoCloseable {
+
+        private final List<Reader> readers = new ArrayList<>();
+        private final PriorityQueue<Integer> heads;
+        // reader the current record is from, -1 before the first record
+        private int current = -1;
+
+        /**
+         * Opens every file
+         * @param files sorted files
+         * @param longs longs in each record
+         * @param field field the files are sorted by
+         * @throws IOException if a file can't be read
+         */
+        Merger(List<Path> files, int longs, int field) throws IOException {
+            this.heads = new PriorityQueue<>((a, b) -> {
+                int compare = Long.compare(readers.get(a).get(field), readers.get(b).get(field));
+                return compare != 0 ? compare : Integer.compare(a, b);
+            });
+            for (Path file : files) {
+                Reader reader = new Reader(file, longs);
+                readers.add(reader);
+                if (reader.next()) {
+                    heads.add(readers.size() - 1);
+                }
+            }
+        }
+
+        /**
+         * Moves to the next record in sorted order
+         * @return false once every file is used up
+         * @throws IOException if a file can't be read
+         */
+        boolean next() throws IOException {
+            if (current >= 0 && readers.get(current).next()) {
+                heads.add(current);
+            }
+            Integer head = heads.poll();
+            current = head == null ? -1 : head;
+            return current >= 0;
+        }
+
+        /**
+         * Returns a long of the current record
+         * @param field index in the record
+         * @return long
+         */
+        long get(int field) {
+            return readers.get(current).get(field);
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Reader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Solutions of puzzle files kept on disk, so a puzzle that has been solved once isn't
+ * solved again when a program starts. A solution is found by a hash of the puzzle
+ * file's contents, the config class reading it and the version of the order puzzles make
+ * their moves in, so editing the file or changing that order makes a new entry. Only solutions are kept: a path can be checked by replaying it,
+ * a verdict that a puzzle has no solution can't.
+ * <br><br>
+ * Entries are only ever added to the end of the data file, which is memory mapped for
+ * reading. Each one holds the search's metrics and the solution as move numbers: the
+ * place of each next config among its parent's neighbors, so the path is replayed from
+ * the start config instead of storing whole configs. An entry whose path no longer replays
+ * to a solution is a miss, and the next solution put for it replaces it. A second file indexes the entries
+ * by hash. If the program stops between writing an entry and indexing it, the entry is
+ * indexed the next time the store is opened, and a half written entry is cut off.
+ * <br><br>
+ * A store may be shared by the threads of one program, but only one program should
+ * add to a store at a time.
+ *
+ * @author Darian Cheung
+ */
+public class SolutionStore implements AutoCloseable {
+
+    /** file the shared store is kept in unless the solver.store property names another */
+    public static final String DEFAULT_FILE = "solutions.db";
+
+    // first ints of the data and index files
+    private static final int DATA_MAGIC = 0x534F4C4E;
+    private static final int INDEX_MAGIC = 0x534F4C49;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    // an index entry is an entry's hash then where it starts in the data file
+    private static final int HASH_BYTES = 32;
+    private static final int INDEX_BYTES = HASH_BYTES + Long.BYTES;
+    // moves are stored as unsigned bytes
+    private static final int MAX_MOVE = 0xFF;
+
+    // version of the order puzzles make their neighbors in, hashed into every entry; stored moves
+    // are places in that order, so it is raised whenever a puzzle changes it and older entries miss
+    private static final int MOVES_VERSION = 2;
+
+    private static SolutionStore shared;
+
+    private final Path file;
+    private final FileChannel data;
+    private final FileChannel index;
+    private MappedByteBuffer mapped;
+    // where each entry starts in the data file, by hex hash
+    private final Map<String, Long> offsets = new HashMap<>();
+    // hashes of entries that didn't replay to a solution, which put may replace
+    private final Set<String> stale = new HashSet<>();
+
+    /**
+     * Opens a store, creating its files if they aren't there yet
+     * @param file data file, the index is kept next to it with .idx added to the name
+     * @throws UncheckedIOException if the files can't be opened or aren't a store
+     */
+    public SolutionStore(Path file) {
+        this.file = file;
+        try {
+            this.data = open(file, DATA_MAGIC);
+            this.index = open(file.resolveSibling(file.getFileName() + ".idx"), INDEX_MAGIC);
+            remap();
+            readIndex();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not open solution store " + file, e);
+        }
+    }
+
+    /**
+     * Returns the store the puzzle programs share, opening it the first time
+     * @return SolutionStore
+     */
+    public static synchronized SolutionStore shared() {
+        if (shared == null) {
+            shared = new SolutionStore(Path.of(System.getProperty("solver.store", DEFAULT_FILE)));
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the stored result for a puzzle file, with its path replayed from the start config
+     * @param puzzle file the start config was read from
+     * @param start config read from the file
+     * @return SolveResult with the stored metrics, marked as cached, null if the puzzle isn't stored
+     *         or its path doesn't replay to a solution
+     */
+    public synchronized SolveResult get(Path puzzle, Configuration start) {
+        String hash = hash(puzzle, start);
+        Long offset = offsets.get(hash);
+        if (offset == null) {
+            return null;
+        }
+        SolveResult result = replay(offset, start);
+        if (result == null) {
+            stale.add(hash);
+        }
+        return result;
+    }
+
+    /**
+     * Reads an entry and replays its path from the start config
+     * @param offset where the entry starts in the data file
+     * @param start config read from the puzzle file
+     * @return SolveResult, null if the entry isn't a solution that still replays
+     */
+    private SolveResult replay(long offset, Configuration start) {
+        ByteBuffer entry = mapped.duplicate().position((int) (offset + Integer.BYTES + HASH_BYTES));
+        boolean solved = entry.get() != 0;
+        long generated = entry.getLong();
+        long unique = entry.getLong();
+        long peakFrontier = entry.getLong();
+        Duration wallTime = Duration.ofNanos(entry.getLong());
+        List<Long> frontierSizes = new ArrayList<>();
+        for (int levels = entry.getInt(); levels > 0; levels--) {
+            frontierSizes.add(entry.getLong());
+        }
+        // verdicts of no solution were stored by earlier versions, and can't be checked
+        if (!solved) {
+            return null;
+        }
+        List<Configuration> path = new ArrayList<>();
+        path.add(start);
+        for (int moves = entry.getInt(); moves > 0; moves--) {
+            Configuration next = neighbor(path.get(path.size() - 1), Byte.toUnsignedInt(entry.get()));
+            if (next == null) {
+                // the puzzle's moves have changed since the entry was written
+                return null;
+            }
+            path.add(next);
+        }
+        if (!path.get(path.size() - 1).isSolution()) {
+            return null;
+        }
+        return new SolveResult(path, new SolverMetrics(generated, unique, peakFrontier, frontierSizes, wallTime));
+    }
+
+    /**
+     * Adds the result of solving a puzzle file, unless the puzzle is stored already with a path
+     * that still replays
+     * @param puzzle file the start config was read from
+     * @param start config read from the file
+     * @param result result of solving start, only stored if a solution was found
+     * @return whether the result was added
+     * @throws UncheckedIOException if the store can't be written
+     */
+    public synchronized boolean put(Path puzzle, Configuration start, SolveResult result) {
+        if (!result.isSolved()) {
+            return false;
+        }
+        String hash = hash(puzzle, start);
+        if (offsets.containsKey(hash) && !stale.contains(hash)) {
+            return false;
+        }
+        byte[] moves = moves(result.getPath());
+        if (moves == null) {
+            return false;
+        }
+        SolverMetrics metrics = result.getMetrics();
+        List<Long> frontierSizes = metrics.getFrontierSizes();
+        int length = HASH_BYTES + 1 + 4 * Long.BYTES + Integer.BYTES + frontierSizes.size() * Long.BYTES
+                + Integer.BYTES + moves.length;
+        ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + length);
+        entry.putInt(length);
+        entry.put(HexFormat.of().parseHex(hash));
+        entry.put((byte) (result.isSolved() ? 1 : 0));
+        entry.putLong(metrics.getGenerated());
+        entry.putLong(metrics.getUnique());
+        entry.putLong(metrics.getPeakFrontier());
+        entry.putLong(metrics.getWallTime().toNanos());
+        entry.putInt(frontierSizes.size());
+        for (long size : frontierSizes) {
+            entry.putLong(size);
+        }
+        entry.putInt(moves.length);
+        entry.put(moves);
+        try {
+            long offset = data.size();
+            write(data, entry.flip(), offset);
+            data.force(false);
+            // a later index entry for the same hash wins when the index is read again
+            addIndex(hash, offset);
+            stale.remove(hash);
+            remap();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not add to solution store " + file, e);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of puzzles stored
+     * @return size
+     */
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Closes the store's files
+     */
+    @Override
+    public synchronized void close() {
+        mapped = null;
+        try {
+            data.close();
+            index.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not close solution store " + file, e);
+        }
+    }
+
+    /**
+     * Opens a file of the store, writing its header if it's new
+     * @param path file to open
+     * @param magic first int of the file
+     * @return FileChannel
+     * @throws IOException if the file can't be opened or has the wrong header
+     */
+    private static FileChannel open(Path path, int magic) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.size() < HEADER_BYTES) {
+            channel.truncate(0);
+            write(channel, header.putInt(magic).putInt(VERSION).flip(), 0);
+        }
+        else {
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != magic || header.getInt() != VERSION) {
+                channel.close();
+                throw new IOException("Not a version " + VERSION + " solution store: " + path);
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Loads the index, then indexes any whole entries after the last indexed one
+     * and cuts off a half written entry at the end of the data file
+     * @throws IOException if a file can't be read or written
+     */
+    private void readIndex() throws IOException {
+        long entries = (index.size() - HEADER_BYTES) / INDEX_BYTES;
+        index.truncate(HEADER_BYTES + entries * INDEX_BYTES);
+        long end = HEADER_BYTES;
+        if (entries > 0) {
+            ByteBuffer table = index.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, entries * INDEX_BYTES);
+            byte[] hash = new byte[HASH_BYTES];
+            for (long i = 0; i < entries; i++) {
+                table.get(hash);
+                long offset = table.getLong();
+                offsets.put(HexFormat.of().formatHex(hash), offset);
+                end = Math.max(end, offset + Integer.BYTES + mapped.getInt((int) offset));
+            }
+        }
+        long size = data.size();
+        while (end + Integer.BYTES <= size && end + Integer.BYTES + mapped.getInt((int) end) <= size) {
+            byte[] hash = new byte[HASH_BYTES];
+            mapped.get((int) end + Integer.BYTES, hash);
+            addIndex(HexFormat.of().formatHex(hash), end);
+            end += Integer.BYTES + mapped.getInt((int) end);
+        }
+        if (end < size) {
+            data.truncate(end);
+            remap();
+        }
+    }
+
+    /**
+     * Adds an entry to the index file and the map
+     * @param hash hex hash of the entry
+     * @param offset where the entry starts in the data file
+     * @throws IOException if the index can't be written
+     */
+    private void addIndex(String hash, long offset) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_BYTES);
+        entry.put(HexFormat.of().parseHex(hash)).putLong(offset);
+        write(index, entry.flip(), index.size());
+        offsets.put(hash, offset);
+    }
+
+    /**
+     * Maps the whole data file again after it has grown or shrunk
+     * @throws IOException if the file can't be mapped
+     */
+    private void remap() throws IOException {
+        mapped = data.map(FileChannel.MapMode.READ_ONLY, 0, data.size());
+    }
+
+    /**
+     * Writes all of a buffer at a place in a file
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Hashes the puzzle file's contents along with the name of the config class reading it
+     * and the version of the order of its moves
+     * @param puzzle puzzle file
+     * @param start config read from the file
+     * @return hex SHA-256 hash
+     */
+    private static String hash(Path puzzle, Configuration start) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(start.getClass().getName().getBytes());
+            digest.update((byte) 0);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(MOVES_VERSION).array());
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(puzzle)));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not read puzzle " + puzzle, e);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 isn't available", e);
+        }
+    }
+
+    /**
+     * Turns a path into the place of each config among the neighbors of the one before it,
+     * walking it again from its start the way {@link #get} replays it
+     * @param path path from start to solution
+     * @return move numbers, null if a config has too many neighbors to store its place
+     */
+    private static byte[] moves(List<Configuration> path) {
+        byte[] moves = new byte[Math.max(0, path.size() - 1)];
+        Configuration node = path.isEmpty() ? null : path.get(0);
+        for (int i = 0; i < moves.length; i++) {
+            int move = 0;
+            Iterator<Configuration> nbrs = node.neighbors();
+            Configuration nbr;
+            while (!(nbr = nbrs.next()).equals(path.get(i + 1))) {
+                move++;
+            }
+            if (move > MAX_MOVE) {
+                return null;
+            }
+            moves[i] = (byte) move;
+            node = nbr;
+        }
+        return moves;
+    }
+
+    /**
+     * Returns a config's neighbor at a place
+     * @param config config to move from
+     * @param move place among the neighbors
+     * @return neighbor, null if there are fewer neighbors than that
+     */
+    private static Configuration neighbor(Configuration config, int move) {
+        Iterator<Configuration> nbrs = config.neighbors();
+        for (int i = 0; i < move && nbrs.hasNext(); i++) {
+            nbrs.next();
+        }
+        return nbrs.hasNext() ? nbrs.next() : null;
+    }
+}
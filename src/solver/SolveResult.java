@@ -0,0 +1,87 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The path a solver found and the metrics of the search that found it
+ *
+ * @author Darian Cheung
+ */
+public class SolveResult {
+
+    /**
+     * How the search ended
+     */
+    public enum Status {
+        /** a solution was found, the path leads to it */
+        SOLVED,
+        /** every reachable config was visited without finding a solution */
+        UNSOLVABLE,
+        /** the search went over a limit of its {@link SolverOptions} first */
+        BUDGET_EXCEEDED,
+        /** the search's {@link CancellationToken} was cancelled first */
+        CANCELLED
+    }
+
+    private final List<Configuration> path;
+    private final SolverMetrics metrics;
+    private final Status status;
+
+    /**
+     * Creates the result of a search that finished, stopping the metrics' clock
+     * @param path path from start to solution, empty if there is none
+     * @param metrics metrics of the search
+     */
+    SolveResult(List<Configuration> path, SolverMetrics metrics) {
+        this(path, metrics, path.isEmpty() ? Status.UNSOLVABLE : Status.SOLVED);
+    }
+
+    /**
+     * Creates the result of a search that was stopped early, stopping the metrics' clock
+     * @param status why the search stopped
+     * @param metrics metrics of the search up to when it stopped
+     */
+    SolveResult(Status status, SolverMetrics metrics) {
+        this(new ArrayList<>(), metrics, status);
+    }
+
+    private SolveResult(List<Configuration> path, SolverMetrics metrics, Status status) {
+        metrics.stop();
+        this.path = path;
+        this.metrics = metrics;
+        this.status = status;
+    }
+
+    /**
+     * Returns the path from the start config to a solution
+     * @return List of configs, empty unless the status is SOLVED
+     */
+    public List<Configuration> getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the metrics of the search, which only cover the part that ran if it was stopped
+     * @return SolverMetrics
+     */
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns how the search ended
+     * @return Status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns whether a solution was found
+     * @return boolean
+     */
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+}
@@ -12,51 +12,253 @@ import puzzles.clock.*;
  */
 public class Solver {
 
-    public static List<Configuration> solve(Configuration config) {
+    public static SolveResult solve(Configuration config) {
+        return solve(config, Budget.unlimited(), Progress.none());
+    }
+
+    /**
+     * Solves the config with the given options
+     * @param config starting config
+     * @param options where to keep the visited configs, the limits of the search, and who to tell its progress
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    public static SolveResult solve(Configuration config, SolverOptions options) {
+        Budget budget = new Budget(options);
+        try (Progress progress = new Progress(options)) {
+            SolveResult result = solve(config, options, budget, progress);
+            // a last snapshot so subscribers see the final numbers before onComplete
+            progress.publish(result.getMetrics(), 0);
+            return result;
+        }
+    }
+
+    /**
+     * Solves the config with the store the options ask for
+     * @param config starting config
+     * @param options where to keep the visited configs
+     * @param budget limits of the search
+     * @param progress where snapshots of the search are published
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    private static SolveResult solve(Configuration config, SolverOptions options, Budget budget,
+                                     Progress progress) {
+        if (options.getStore() == SolverOptions.Store.HEAP || !config.hasKey()) {
+            return solve(config, budget, progress);
+        }
+        if (options.getStore() == SolverOptions.Store.EXTERNAL) {
+            return ExternalSolver.solve(config, options.getDirectory(), budget, progress);
+        }
+        try (StateStore visited = options.getStore() == SolverOptions.Store.MAPPED
+                ? new MappedStateTable(options.getDirectory())
+                : new LongStateTable()) {
+            return solve(config, visited, budget, progress);
+        }
+    }
+
+    /**
+     * Solves the config keeping every visited config in a HashMap
+     * @param config starting config
+     * @param budget limits of the search
+     * @param progress where snapshots of the search are published
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    static SolveResult solve(Configuration config, Budget budget, Progress progress) {
+        SolverMetrics metrics = new SolverMetrics();
 
         // Predecessor Map to access and store Configs
         Map<Configuration, Configuration> predecessors = new HashMap<>();
         // Queue and Deque Configs
-        Queue<Configuration> queue = new LinkedList<>();
-        // Path, shortest solution
-        List<Configuration> path = new LinkedList<>();
-
-        //counters for total configs
+        Frontier queue = new Frontier();
 
         // add initial configs to queue and map to store and later trace back to.
-        queue.add(config);
+        queue.offer(config);
         predecessors.put(config, null);
+        if (config.isSolution()) {
+            return new SolveResult(buildPath(predecessors, config), metrics);
+        }
 
+        // configs left in the level being expanded
+        int remaining = 0;
         while (!queue.isEmpty()) {
-            // checks queue if any that pass are the solution
-            Configuration current = queue.remove();
-            if (current.isSolution()) {
-                // hops from the solution config to the config it's attached to until it gets to config started with
-                path.add(0, current);
-                Configuration node = predecessors.get(current);
-                while(node != config && node != null) {
-                    path.add(0, node);
-                    node = predecessors.get(node);
-                }
-                if (node != null) {
-                    path.add(0, config);
-                }
-                return path;
+            SolveResult.Status stop = budget.check(metrics);
+            if (stop != null) {
+                return new SolveResult(stop, metrics);
+            }
+            progress.sample(metrics, queue.size());
+            // everything in the queue is in the next level once the last one is used up
+            if (remaining == 0) {
+                remaining = queue.size();
+                metrics.level(remaining);
             }
-            // get the neighbor of configs to store in queue and map if current config is not the solution
-            for (Configuration nbr : current.getNeighbors()) {
+            Configuration current = queue.remove();
+            remaining--;
+            metrics.expanded();
+            // make the neighbors one at a time, checking each new one for the solution as it's
+            // made so the search stops a level sooner than it would checking dequeued configs
+            for (Iterator<Configuration> nbrs = current.neighbors(); nbrs.hasNext(); ) {
+                Configuration nbr = nbrs.next();
+                metrics.generated();
                 if (!predecessors.containsKey(nbr)) {
                     predecessors.put(nbr, current);
+                    metrics.unique();
+                    if (nbr.isSolution()) {
+                        return new SolveResult(buildPath(predecessors, nbr), metrics);
+                    }
+                    queue.offer(nbr);
+                }
+            }
+            metrics.frontier(queue.size());
+        }
+        // no solution, empty path
+        return new SolveResult(new ArrayList<>(), metrics);
+    }
+
+    /**
+     * Solves the config storing only the keys of visited configs, so just the configs in the
+     * queue are kept as objects. The path is made again afterwards by following the keys from
+     * the start config.
+     * @param config starting config, must have a key
+     * @param visited empty store for the keys
+     * @param budget limits of the search
+     * @param progress where snapshots of the search are published
+     * @return shortest path from config to a solution, empty if there is none, and the metrics
+     */
+    private static SolveResult solve(Configuration config, StateStore visited, Budget budget,
+                                     Progress progress) {
+        SolverMetrics metrics = new SolverMetrics();
+        Frontier queue = new Frontier();
+
+        queue.offer(config);
+        visited.putIfAbsent(config.key(), StateStore.NO_PARENT);
+        if (config.isSolution()) {
+            return new SolveResult(replayPath(config, new long[] {config.key()}), metrics);
+        }
+
+        int remaining = 0;
+        while (!queue.isEmpty()) {
+            SolveResult.Status stop = budget.check(metrics);
+            if (stop != null) {
+                return new SolveResult(stop, metrics);
+            }
+            progress.sample(metrics, queue.size());
+            if (remaining == 0) {
+                remaining = queue.size();
+                metrics.level(remaining);
+            }
+            Configuration current = queue.remove();
+            remaining--;
+            metrics.expanded();
+            long currentKey = current.key();
+            for (Iterator<Configuration> nbrs = current.neighbors(); nbrs.hasNext(); ) {
+                Configuration nbr = nbrs.next();
+                long nbrKey = nbr.key();
+                metrics.generated();
+                if (visited.putIfAbsent(nbrKey, currentKey)) {
+                    metrics.unique();
+                    if (nbr.isSolution()) {
+                        return new SolveResult(replayPath(config, keyPath(visited, nbrKey)), metrics);
+                    }
                     queue.offer(nbr);
-                    config.addTotals();
-                    config.addUnique();
                 }
-                else {
-                    config.addTotals();
+            }
+            metrics.frontier(queue.size());
+        }
+        // no solution, empty path
+        return new SolveResult(new ArrayList<>(), metrics);
+    }
+
+    /**
+     * Follows parent keys from the solution back to the start config
+     * @param visited keys mapped to the key they came from
+     * @param solution key of the solution
+     * @return keys from start to solution
+     */
+    static long[] keyPath(StateStore visited, long solution) {
+        ArrayList<Long> keys = new ArrayList<>();
+        for (long key = solution; key != StateStore.NO_PARENT; key = visited.parent(key)) {
+            keys.add(key);
+        }
+        long[] path = new long[keys.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = keys.get(path.length - 1 - i);
+        }
+        return path;
+    }
+
+    /**
+     * Turns a path of keys back into configs, picking the neighbor with the next key at each step
+     * @param config starting config, the first key
+     * @param keys keys from start to solution
+     * @return path of configs
+     */
+    static List<Configuration> replayPath(Configuration config, long[] keys) {
+        ArrayList<Configuration> path = new ArrayList<>();
+        Configuration node = config;
+        path.add(node);
+        for (int i = 1; i < keys.length; i++) {
+            Configuration next = null;
+            for (Configuration nbr : node.getNeighbors()) {
+                if (nbr.key() == keys[i]) {
+                    next = nbr;
+                    break;
+                }
+            }
+            if (next == null) {
+                throw new IllegalStateException("No neighbor of " + node + " has key " + keys[i]);
+            }
+            node = next;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Walks a path again from a config equal to its first one, taking at each step the neighbor
+     * equal to the next config on the path. Configs can be equal while differing in something
+     * equals leaves out, such as which of two robots is where, so this makes every config on
+     * the path a move of the one before it, starting from the very config given.
+     * @param start config to walk from
+     * @param path path whose first config equals start
+     * @return path of configs starting with start
+     */
+    static List<Configuration> followPath(Configuration start, List<Configuration> path) {
+        ArrayList<Configuration> followed = new ArrayList<>();
+        Configuration node = start;
+        followed.add(node);
+        for (int i = 1; i < path.size(); i++) {
+            Configuration next = null;
+            for (Iterator<Configuration> nbrs = node.neighbors(); nbrs.hasNext(); ) {
+                Configuration nbr = nbrs.next();
+                if (nbr.equals(path.get(i))) {
+                    next = nbr;
+                    break;
                 }
             }
+            if (next == null) {
+                throw new IllegalStateException("No neighbor of " + node + " equals " + path.get(i));
+            }
+            node = next;
+            followed.add(node);
+        }
+        return followed;
+    }
+
+    /**
+     * Hops from the solution config to the config it's attached to until it gets to the config
+     * started with, then flips the list so it goes from start to solution
+     * @param predecessors map of configs to the config they came from
+     * @param solution solution config
+     * @return path from start to solution
+     */
+    static List<Configuration> buildPath(Map<Configuration, Configuration> predecessors,
+                                         Configuration solution) {
+        ArrayList<Configuration> path = new ArrayList<>();
+        Configuration node = solution;
+        while (node != null) {
+            path.add(node);
+            node = predecessors.get(node);
         }
-        // print configs
+        Collections.reverse(path);
         return path;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,225 @@
+package solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what a search did: the configs it generated, how many of those were new,
+ * how many it expanded, the size of each level it expanded, and how long it took. The counters are
+ * LongAdders, so the threads of a parallel search can all record into one.
+ *
+ * @author Darian Cheung
+ */
+public class SolverMetrics {
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder unique = new LongAdder();
+    private final LongAdder expanded = new LongAdder();
+    private final LongAccumulator peakFrontier = new LongAccumulator(Math::max, 0);
+    // configs in each level, in order of depth
+    private final List<Long> frontierSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final long startNanos;
+    private volatile long stopNanos = -1;
+    // whether these are the metrics of an earlier search, read back instead of measured now
+    private final boolean cached;
+
+    /**
+     * Starts the clock, the start config counts as generated and unique
+     */
+    SolverMetrics() {
+        startNanos = System.nanoTime();
+        cached = false;
+        generated.increment();
+        unique.increment();
+    }
+
+    /**
+     * Recreates the metrics of a finished search kept in a {@link SolutionStore}, marked as cached
+     * @param generated configs generated
+     * @param unique different configs generated
+     * @param peakFrontier most configs waiting at once
+     * @param frontierSizes size of each level
+     * @param wallTime how long the search ran
+     */
+    SolverMetrics(long generated, long unique, long peakFrontier, List<Long> frontierSizes, Duration wallTime) {
+        stopNanos = System.nanoTime();
+        startNanos = stopNanos - wallTime.toNanos();
+        cached = true;
+        this.generated.add(generated);
+        this.unique.add(unique);
+        this.peakFrontier.accumulate(peakFrontier);
+        this.frontierSizes.addAll(frontierSizes);
+    }
+
+    /**
+     * Records a generated config, new or not
+     */
+    void generated() {
+        generated.increment();
+    }
+
+    /**
+     * Records a config that hadn't been seen before
+     */
+    void unique() {
+        unique.increment();
+    }
+
+    /**
+     * Records a config whose neighbors are about to be made
+     */
+    void expanded() {
+        expanded.increment();
+    }
+
+    /**
+     * Records a number of configs that hadn't been seen before
+     * @param count new configs
+     */
+    void unique(long count) {
+        unique.add(count);
+    }
+
+    /**
+     * Records the size of the next level expanded
+     * @param size configs in the level
+     */
+    void level(long size) {
+        frontierSizes.add(size);
+        frontier(size);
+    }
+
+    /**
+     * Records the number of configs waiting to be expanded
+     * @param size configs waiting
+     */
+    void frontier(long size) {
+        peakFrontier.accumulate(size);
+    }
+
+    /**
+     * Stops the clock, later calls do nothing
+     */
+    void stop() {
+        if (stopNanos < 0) {
+            stopNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns the number of configs generated, counting repeats
+     * @return generated configs
+     */
+    public long getGenerated() {
+        return generated.sum();
+    }
+
+    /**
+     * Returns the number of different configs generated
+     * @return unique configs
+     */
+    public long getUnique() {
+        return unique.sum();
+    }
+
+    /**
+     * Returns the number of configs whose neighbors were made, 0 for cached metrics since a
+     * store doesn't keep it
+     * @return expanded configs
+     */
+    public long getExpanded() {
+        return expanded.sum();
+    }
+
+    /**
+     * Returns the number of generated configs that had been seen already
+     * @return repeated configs
+     */
+    public long getDuplicates() {
+        return getGenerated() - getUnique();
+    }
+
+    /**
+     * Returns the share of generated configs that had been seen already
+     * @return ratio from 0 to 1
+     */
+    public double getDuplicateRatio() {
+        long total = getGenerated();
+        return total == 0 ? 0 : (double) getDuplicates() / total;
+    }
+
+    /**
+     * Returns the size of each level expanded, starting with the start config's
+     * @return List of sizes by depth
+     */
+    public List<Long> getFrontierSizes() {
+        synchronized (frontierSizes) {
+            return List.copyOf(frontierSizes);
+        }
+    }
+
+    /**
+     * Returns the depth of the last level expanded
+     * @return depth, -1 before the first level
+     */
+    public int getDepth() {
+        return frontierSizes.size() - 1;
+    }
+
+    /**
+     * Returns the most configs that were waiting to be expanded at once
+     * @return peak frontier size
+     */
+    public long getPeakFrontier() {
+        return peakFrontier.get();
+    }
+
+    /**
+     * Returns how long the search ran, or has been running if it isn't done
+     * @return Duration
+     */
+    public Duration getWallTime() {
+        long stop = stopNanos < 0 ? System.nanoTime() : stopNanos;
+        return Duration.ofNanos(stop - startNanos);
+    }
+
+    /**
+     * Returns whether these metrics are of a search from an earlier run, read back from a store,
+     * rather than one that just ran
+     * @return boolean
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Returns the number of configs generated per second
+     * @return configs per second
+     */
+    public double getNodesPerSecond() {
+        long nanos = getWallTime().toNanos();
+        return nanos == 0 ? 0 : getGenerated() * 1e9 / nanos;
+    }
+
+    /**
+     * Lists the metrics one per line, starting with the total and unique configs, under a
+     * heading if they are cached
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return (cached ? "Cached from an earlier run:\n" : "") +
+                "Total Configs: " + getGenerated() +
+                "\nUnique Configs: " + getUnique() +
+                String.format("\nDuplicate Ratio: %.3f", getDuplicateRatio()) +
+                "\nFrontier Sizes: " + getFrontierSizes() +
+                "\nPeak Frontier: " + getPeakFrontier() +
+                String.format("\nWall Time: %.3f ms", getWallTime().toNanos() / 1e6) +
+                String.format("\nConfigs/sec: %.0f", getNodesPerSecond());
+    }
+}
@@ -0,0 +1,193 @@
+package solver;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * Settings for a {@link Solver} search. Each setter returns the options so they can be chained:
+ * <pre>
+ *     Solver.solve(config, new SolverOptions().store(SolverOptions.Store.MAPPED));
+ * </pre>
+ * A search that goes over one of its limits stops with a BUDGET_EXCEEDED result instead
+ * of running until every config is visited. There are no limits by default.
+ *
+ * @author Darian Cheung
+ */
+public class SolverOptions {
+
+    /**
+     * Where the visited configs are kept
+     */
+    public enum Store {
+        /** every visited config in a HashMap */
+        HEAP,
+        /** only the keys of visited configs, in long arrays on the heap */
+        COMPACT,
+        /** only the keys of visited configs, in memory mapped temporary files */
+        MAPPED,
+        /** each level and the visited keys in sorted temporary files, see {@link ExternalSolver} */
+        EXTERNAL
+    }
+
+    private Store store = Store.HEAP;
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"));
+
+    private long maxStates = Long.MAX_VALUE;
+    private long maxMemory = Long.MAX_VALUE;
+    private Duration timeout;
+    private CancellationToken cancellation;
+
+    private final List<Flow.Subscriber<? super SolverProgress>> progressSubscribers = new ArrayList<>();
+    private Duration progressInterval = Duration.ofMillis(250);
+
+    /**
+     * Sets where visited configs are kept. Configs without keys are always kept in a HashMap.
+     * @param store kind of store
+     * @return these options
+     */
+    public SolverOptions store(Store store) {
+        this.store = store;
+        return this;
+    }
+
+    /**
+     * Sets the directory the temporary files of a MAPPED or EXTERNAL store are made in
+     * @param directory parent directory, the system temporary directory by default
+     * @return these options
+     */
+    public SolverOptions directory(Path directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * Sets the most unique configs the search may visit
+     * @param maxStates limit on unique configs
+     * @return these options
+     */
+    public SolverOptions maxStates(long maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * Sets the most heap the search may use. The heap in use is read every so often while
+     * the search runs, and includes garbage not yet collected, so this is an estimate that
+     * errs towards stopping early.
+     * @param bytes limit on heap in use
+     * @return these options
+     */
+    public SolverOptions maxMemory(long bytes) {
+        this.maxMemory = bytes;
+        return this;
+    }
+
+    /**
+     * Sets how long the search may run, counted from when it starts
+     * @param timeout time limit
+     * @return these options
+     */
+    public SolverOptions timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sets a token that can stop the search from another thread
+     * @param cancellation token checked while the search runs
+     * @return these options
+     */
+    public SolverOptions cancellation(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+
+    /**
+     * Adds a subscriber that is sent a snapshot of the search every so often while it runs,
+     * then onComplete when it ends. It is called on a separate thread, and misses snapshots
+     * rather than holding up the search if it falls behind.
+     * @param subscriber subscriber to the snapshots
+     * @return these options
+     */
+    public SolverOptions progress(Flow.Subscriber<? super SolverProgress> subscriber) {
+        progressSubscribers.add(subscriber);
+        return this;
+    }
+
+    /**
+     * Sets the time between progress snapshots
+     * @param interval time between snapshots, a quarter second by default
+     * @return these options
+     */
+    public SolverOptions progressInterval(Duration interval) {
+        this.progressInterval = interval;
+        return this;
+    }
+
+    /**
+     * Returns where visited configs are kept
+     * @return store
+     */
+    public Store getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the directory for temporary files
+     * @return directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the limit on unique configs
+     * @return max states, Long.MAX_VALUE if there is none
+     */
+    public long getMaxStates() {
+        return maxStates;
+    }
+
+    /**
+     * Returns the limit on heap in use
+     * @return max bytes, Long.MAX_VALUE if there is none
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Returns the time limit
+     * @return timeout, null if there is none
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns the cancellation token
+     * @return token, null if there is none
+     */
+    public CancellationToken getCancellation() {
+        return cancellation;
+    }
+
+    /**
+     * Returns the subscribers to progress snapshots
+     * @return List of subscribers
+     */
+    public List<Flow.Subscriber<? super SolverProgress>> getProgressSubscribers() {
+        return progressSubscribers;
+    }
+
+    /**
+     * Returns the time between progress snapshots
+     * @return interval
+     */
+    public Duration getProgressInterval() {
+        return progressInterval;
+    }
+}
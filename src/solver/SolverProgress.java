@@ -0,0 +1,77 @@
+package solver;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of a search that is still running, published to the subscribers set with
+ * {@link SolverOptions#progress(java.util.concurrent.Flow.Subscriber)}
+ *
+ * @author Darian Cheung
+ */
+public class SolverProgress {
+
+    private final int depth;
+    private final long frontier;
+    private final long visited;
+    private final Duration elapsed;
+    private final double statesPerSecond;
+
+    /**
+     * Takes a snapshot of the search
+     * @param metrics metrics of the search so far
+     * @param frontier configs waiting to be expanded
+     */
+    SolverProgress(SolverMetrics metrics, long frontier) {
+        this.depth = metrics.getDepth();
+        this.frontier = frontier;
+        this.visited = metrics.getUnique();
+        this.elapsed = metrics.getWallTime();
+        this.statesPerSecond = metrics.getNodesPerSecond();
+    }
+
+    /**
+     * Returns the depth of the level being expanded
+     * @return depth, 0 for the start config
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of configs waiting to be expanded
+     * @return frontier size
+     */
+    public long getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * Returns the number of different configs seen so far
+     * @return visited configs
+     */
+    public long getVisited() {
+        return visited;
+    }
+
+    /**
+     * Returns how long the search has been running
+     * @return Duration
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the number of configs generated per second so far
+     * @return states per second
+     */
+    public double getStatesPerSecond() {
+        return statesPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Depth %d, Frontier %d, Visited %d, %.0f states/sec",
+                depth, frontier, visited, statesPerSecond);
+    }
+}
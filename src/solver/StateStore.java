@@ -0,0 +1,48 @@
+package solver;
+
+/**
+ * Stores the keys of visited configurations and the key of the configuration
+ * each one came from, for the searches that work on keys instead of objects.
+ *
+ * @author Darian Cheung
+ */
+interface StateStore extends AutoCloseable {
+
+    // parent of the starting config
+    long NO_PARENT = -1;
+
+    /**
+     * Adds the key if it's not already stored
+     * @param key key of a config
+     * @param parent key of the config it came from
+     * @return true if the key was added, false if it was already there
+     */
+    boolean putIfAbsent(long key, long parent);
+
+    /**
+     * Checks if the key is stored
+     * @param key key of a config
+     * @return true if it's there
+     */
+    boolean contains(long key);
+
+    /**
+     * Returns the key of the config the given one came from
+     * @param key key of a stored config
+     * @return parent key, NO_PARENT for the start config
+     */
+    long parent(long key);
+
+    /**
+     * Number of keys stored
+     * @return size
+     */
+    long size();
+
+    /**
+     * Releases anything held outside the heap, nothing by default
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -10,8 +10,6 @@ public class WaterConfig implements Configuration{
     // Array of max water buckets can hold and current fill of buckets
     private static ArrayList<Integer> max;
     private ArrayList<Integer> buckets;
-    private int total = 1;
-    private int unique = 1;
 
     /**
      * Creates water config
@@ -118,26 +116,6 @@ public class WaterConfig implements Configuration{
         return neighbors;
     }
 
-    @Override
-    public void addTotals() {
-        total++;
-    }
-
-    @Override
-    public void addUnique() {
-        unique++;
-    }
-
-    @Override
-    public int returnTotal() {
-        return total;
-    }
-
-    @Override
-    public int returnUnique() {
-        return unique;
-    }
-
     /**
      * Checks of two configs are the same
      * @param o
@@ -9,6 +9,8 @@ import java.util.Objects;
  * This is not much more useful than using a plain 2D primitive array,
  * except that hashCode and equals are simplified by being defined here,
  * and this class accepts Coordinates instances in lieu of pairs of integers.
+ * The hash is kept up to date by set, using a {@link ZobristTable},
+ * so a copy with a few cells changed doesn't hash the whole grid again.
  * <br><br>
  * Demonstration of Use
  * <pre>
@@ -51,6 +53,8 @@ public class Grid< Thing> {
     private final int nRows;
     private final int nCols;
     private final Thing[][] spots;
+    private final ZobristTable table;
+    private long zobrist;
 
     /**
      * Construct a grid using a default element value
@@ -67,6 +71,10 @@ public class Grid< Thing> {
         for ( int r = 0; r < height; ++r ) {
             Arrays.fill( spots[ r ], init );
         }
+        this.table = new ZobristTable( Math.max( 1, height * width ), 1 );
+        for ( int cell = 0; cell < height * width; ++cell ) {
+            this.zobrist ^= this.table.key( cell, init );
+        }
     }
 
     /**
@@ -89,6 +97,8 @@ public class Grid< Thing> {
         for ( int r = 0; r < this.nRows; ++r ) {
             this.spots[ r ] = Arrays.copyOf( other.spots[ r ], this.nCols );
         }
+        this.table = other.table;
+        this.zobrist = other.zobrist;
     }
 
     /**
@@ -154,6 +164,8 @@ public class Grid< Thing> {
      * @param c column where the value is to be placed
      */
     public void set( Thing t, int r, int c ) {
+        int cell = r * this.nCols + c;
+        this.zobrist ^= this.table.key( cell, spots[ r ][ c ] ) ^ this.table.key( cell, t );
         spots[ r ][ c ] = t;
     }
 
@@ -163,7 +175,7 @@ public class Grid< Thing> {
      * @param coord where the value is to be placed
      */
     public void set( Thing t, Coordinates coord ) {
-        spots[ coord.row() ][ coord.col() ] = t;
+        set( t, coord.row(), coord.col() );
     }
 
     /**
@@ -180,19 +192,21 @@ public class Grid< Thing> {
         if ( this == o ) return true;
         if ( o == null ) return false;
         if ( o instanceof Grid< ? > grid ) {
-            return Arrays.deepEquals( spots, grid.spots );
+            // equal elements have equal hash codes, so different hashes can't be equal grids
+            return this.zobrist == grid.zobrist && Arrays.deepEquals( spots, grid.spots );
         }
         return false;
     }
 
     /**
      * Compute a hash code for this grid.
-     * @return a value based on {@link Arrays#deepHashCode(Object[])}
+     * @return a value based on the dimensions and the Zobrist hash of the elements,
+     *         which set keeps up to date
      */
     @Override
     public int hashCode() {
         int result = Objects.hash( nRows, nCols );
-        result = 31 * result + Arrays.deepHashCode( spots );
+        result = 31 * result + Long.hashCode( this.zobrist );
         return result;
     }
 
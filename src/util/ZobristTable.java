@@ -0,0 +1,147 @@
+package util;
+
+/**
+ * Random 64-bit keys for hashing a board the Zobrist way: the hash of a board is
+ * the exclusive or of the key of every cell with the value on it. Changing a cell
+ * changes the hash by the exclusive or of its old and new keys, so a board made by
+ * changing a few cells of another gets its hash in time for those cells only.
+ * <br><br>
+ * The keys are a fixed sequence, the same in every table and every run, so two
+ * tables of the same size hand out the same keys and boards hashed with either
+ * can be compared. Keys of small tables are kept in an array, the keys of bigger
+ * ones are worked out when asked for.
+ * <br><br>
+ * Demonstration of Use
+ * <pre>
+        ZobristTable table = new ZobristTable( 9, 3 );
+        long hash = table.hash( new int[]{ 0, 1, 2, 0, 1, 2, 0, 1, 2 } );
+        // put a 0 on cell 1, where there was a 1
+        hash ^= table.key( 1, 1 ) ^ table.key( 1, 0 );
+        System.out.println( hash == table.hash( new int[]{ 0, 0, 2, 0, 1, 2, 0, 1, 2 } ) );
+ </pre>
+ *
+ * @author Darian Cheung
+ */
+public class ZobristTable {
+
+    /** most keys kept in an array, 8 bytes each */
+    private static final int MAX_STORED = 1 << 16;
+
+    /** first key of the sequence, and the step between keys */
+    private static final long SEED = 0x5DEECE66DL;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private final int cells;
+    private final int values;
+    private final long[] keys;
+
+    /**
+     * Create the keys for a board
+     * @param cells number of cells on the board
+     * @param values number of values a cell can have, 0 up to values - 1
+     * @rit.pre cells > 0 and values > 0
+     */
+    public ZobristTable( int cells, int values ) {
+        assert cells > 0 && values > 0 : "A table needs cells and values.";
+        this.cells = cells;
+        this.values = values;
+        long size = (long) cells * values;
+        if ( size <= MAX_STORED ) {
+            this.keys = new long[ (int) size ];
+            for ( int i = 0; i < size; ++i ) {
+                this.keys[ i ] = mix( i );
+            }
+        }
+        else {
+            this.keys = null;
+        }
+    }
+
+    /**
+     * How many cells does the table have keys for?
+     * @return the number of cells
+     */
+    public int getCells() {
+        return this.cells;
+    }
+
+    /**
+     * How many values can a cell have?
+     * @return the number of values
+     */
+    public int getValues() {
+        return this.values;
+    }
+
+    /**
+     * Fetch the key of a value on a cell
+     * @param cell the cell, 0 up to cells - 1
+     * @param value the value on it, 0 up to values - 1
+     * @return the key
+     */
+    public long key( int cell, int value ) {
+        long i = (long) cell * this.values + value;
+        return this.keys != null ? this.keys[ (int) i ] : mix( i );
+    }
+
+    /**
+     * Fetch the key of an object on a cell, for values that aren't small numbers.
+     * The object's hashCode picks the key, so equal objects have the same key.
+     * @param cell the cell, 0 up to cells - 1
+     * @param value the object on it, which may be null
+     * @return the key
+     */
+    public long key( int cell, Object value ) {
+        return mix( key( cell, 0 ) ^ ( value == null ? 0 : value.hashCode() ) );
+    }
+
+    /**
+     * Hash a whole board
+     * @param board the value on each cell
+     * @return the exclusive or of the keys of every cell
+     */
+    public long hash( int[] board ) {
+        long hash = 0;
+        for ( int cell = 0; cell < board.length; ++cell ) {
+            hash ^= key( cell, board[ cell ] );
+        }
+        return hash;
+    }
+
+    /**
+     * Hash a whole board
+     * @param board the value on each cell
+     * @return the exclusive or of the keys of every cell
+     */
+    public long hash( byte[] board ) {
+        long hash = 0;
+        for ( int cell = 0; cell < board.length; ++cell ) {
+            hash ^= key( cell, board[ cell ] );
+        }
+        return hash;
+    }
+
+    /**
+     * Make the key at a place in the sequence, the way SplittableRandom makes its numbers
+     * @param i the place
+     * @return a well mixed 64-bit number
+     */
+    private static long mix( long i ) {
+        long z = SEED + ( i + 1 ) * GOLDEN;
+        z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+        z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+        return z ^ ( z >>> 31 );
+    }
+
+    /**
+     * Demonstration program for this ZobristTable class
+     * @param args not used
+     */
+    public static void main( String[] args ) {
+        ZobristTable table = new ZobristTable( 9, 3 );
+        long hash = table.hash( new int[]{ 0, 1, 2, 0, 1, 2, 0, 1, 2 } );
+        // put a 0 on cell 1, where there was a 1
+        hash ^= table.key( 1, 1 ) ^ table.key( 1, 0 );
+        System.out.println( hash == table.hash( new int[]{ 0, 0, 2, 0, 1, 2, 0, 1, 2 } ) );
+    }
+}